@@ -0,0 +1,58 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.metrics.BankingMetrics;
+import com.example.banking.security.AuthTokenFilter;
+import com.example.banking.security.TokenRevocationChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full pass of a bearer-token request through {@link AuthTokenFilter} with the default configuration
+ * (revocation check disabled), i.e. what every authenticated API call pays before reaching a controller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private AuthTokenFilter filter;
+
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        TokenRevocationChecker revocationChecker = new TokenRevocationChecker();
+        ReflectionTestUtils.setField(revocationChecker, "revocationCheckTtl", Duration.ZERO);
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", BenchmarkSupport.jwtUtils());
+        ReflectionTestUtils.setField(filter, "revocationChecker", revocationChecker);
+        ReflectionTestUtils.setField(filter, "metrics", new BankingMetrics(new SimpleMeterRegistry()));
+        authorization = "Bearer " + BenchmarkSupport.jwtUtils().generateJwtToken(BenchmarkSupport.authentication(BenchmarkSupport.BOB));
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customer/accounts");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
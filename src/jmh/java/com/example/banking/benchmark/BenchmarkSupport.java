@@ -0,0 +1,31 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.security.JwtUtils;
+import com.example.banking.security.UserPrincipal;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Fixtures shared by the benchmarks that do not start a Spring context.
+ */
+final class BenchmarkSupport {
+
+    static final String SECRET = "yourbase64encodedsecretkeyyourbase64encodedsecretkey";
+
+    static final UserPrincipal BOB = new UserPrincipal("1", "bob", "customer");
+
+    private BenchmarkSupport() {
+    }
+
+    static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static UsernamePasswordAuthenticationToken authentication(UserPrincipal principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
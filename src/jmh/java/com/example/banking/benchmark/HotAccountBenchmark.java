@@ -0,0 +1,70 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.CustomerBankingServiceApplication;
+import com.example.banking.models.Account;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.services.PartitionedAccountExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sixteen threads depositing into the same account: the lock-based path (every deposit its own transaction,
+ * queueing on the account's row lock) against the partitioned single-writer path (deposits group-committed
+ * by the account's partition thread) and deposit coalescing (deposits summed into one UPDATE per window).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class HotAccountBenchmark {
+
+    @Param({"locking", "partitioned", "coalesced"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private PartitionedAccountExecutor executor;
+
+    private TransactionRequest deposit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they override application.properties; SQL logging would dominate the score.
+        context = new SpringApplicationBuilder(CustomerBankingServiceApplication.class)
+                .run("--server.port=0",
+                        "--banking.partitioned.enabled=" + mode.equals("partitioned"),
+                        "--banking.deposit-coalescing.enabled=" + mode.equals("coalesced"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        executor = context.getBean(PartitionedAccountExecutor.class);
+        // JMH calls the benchmark from its own worker threads.
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(BenchmarkSupport.authentication(BenchmarkSupport.BOB));
+
+        deposit = new TransactionRequest();
+        deposit.setToAccountNo("121212121");
+        deposit.setAmount(BigDecimal.ONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public Account deposit() {
+        return executor.deposit(deposit);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token at sign-in and of validating one on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+
+    private UsernamePasswordAuthenticationToken authentication;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = BenchmarkSupport.jwtUtils();
+        authentication = BenchmarkSupport.authentication(BenchmarkSupport.BOB);
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+}
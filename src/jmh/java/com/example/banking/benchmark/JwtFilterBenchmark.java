@@ -0,0 +1,50 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.security.JwtUtils;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of turning a bearer token into a username on the {@code AuthTokenFilter} path.
+ * {@code legacyFilterPath} reproduces the previous behaviour (key rebuilt and token parsed twice),
+ * {@code cachedParseAndValidate} is the current single parse with the shared key and parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = BenchmarkSupport.jwtUtils();
+        token = jwtUtils.generateJwtToken(BenchmarkSupport.authentication(BenchmarkSupport.BOB));
+    }
+
+    @Benchmark
+    public String legacyFilterPath() {
+        Jwts.parserBuilder().setSigningKey(legacyKey()).build().parse(token);
+        return Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedParseAndValidate() {
+        return jwtUtils.parseAndValidate(token).getSubject();
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkSupport.SECRET));
+    }
+}
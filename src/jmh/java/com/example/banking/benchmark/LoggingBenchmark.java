@@ -0,0 +1,68 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.CustomerBankingServiceApplication;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.services.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit throughput under the default logging configuration (SQL statements and bind parameters logged
+ * synchronously) against the {@code prod} profile (async structured logging, no per-request SQL logs).
+ * Console output goes to a null stream, so the score reflects formatting and appender cost, not the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private PrintStream originalOut;
+
+    private ConfigurableApplicationContext context;
+
+    private CustomerService customerService;
+
+    private TransactionRequest deposit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        context = new SpringApplicationBuilder(CustomerBankingServiceApplication.class)
+                .profiles("default".equals(profile) ? new String[0] : new String[]{profile})
+                .run("--server.port=0");
+        customerService = context.getBean(CustomerService.class);
+        // JMH calls the benchmark from its own worker threads.
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(BenchmarkSupport.authentication(BenchmarkSupport.BOB));
+
+        deposit = new TransactionRequest();
+        deposit.setToAccountNo("121212121");
+        deposit.setAmount(BigDecimal.ONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Object depositAmount() {
+        return customerService.depositAmount(deposit);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.models.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request amount checks of {@code CustomerService} (transfer limit, sufficient funds) and a running
+ * balance over a batch of deposits, on {@link BigDecimal} as they used to be written and on {@link Money}.
+ * Run with {@code -prof gc} to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Money LIMIT = Money.ofMinor(15_000_00L, Money.EUR);
+
+    private static final int BATCH = 100;
+
+    private BigDecimal amount;
+
+    private BigDecimal balance;
+
+    private BigDecimal[] deposits;
+
+    @Setup
+    public void setUp() {
+        amount = new BigDecimal("1234.56");
+        balance = new BigDecimal("15000.00");
+        deposits = new BigDecimal[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            deposits[i] = BigDecimal.valueOf(100 + i, 2);
+        }
+    }
+
+    @Benchmark
+    public boolean checks_BigDecimal() {
+        return amount.compareTo(new BigDecimal("15000")) <= 0 && balance.compareTo(amount) >= 0
+                && amount.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    @Benchmark
+    public boolean checks_Money() {
+        Money money = Money.of(amount, Money.EUR);
+        return !money.isGreaterThan(LIMIT) && !Money.of(balance, Money.EUR).isLessThan(money) && money.isPositive();
+    }
+
+    @Benchmark
+    public BigDecimal runningBalance_BigDecimal() {
+        BigDecimal running = balance;
+        for (BigDecimal deposit : deposits) {
+            running = running.add(deposit);
+        }
+        return running;
+    }
+
+    @Benchmark
+    public BigDecimal runningBalance_Money() {
+        Money running = Money.of(balance, Money.EUR);
+        for (BigDecimal deposit : deposits) {
+            running = running.plus(Money.of(deposit, Money.EUR));
+        }
+        return running.toBigDecimal();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.models.Account;
+import com.example.banking.models.AccountType;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.payload.response.GenericResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the account list response body, both for entities ({@code GenericResponse<List<Account>>})
+ * and for the {@link AccountResponse} projection the endpoint returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"3", "100"})
+    private int accounts;
+
+    private ObjectMapper objectMapper;
+
+    private GenericResponse<List<Account>> entityResponse;
+
+    private GenericResponse<List<AccountResponse>> projectionResponse;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC converter.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Account> entities = new ArrayList<>(accounts);
+        List<AccountResponse> projections = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            String accountNo = String.format("%09d", i);
+            AccountType type = i % 2 == 0 ? AccountType.REGULAR : AccountType.SAVING;
+            BigDecimal balance = new BigDecimal("15000.00").add(BigDecimal.valueOf(i));
+
+            Account account = new Account();
+            account.setAccountNo(accountNo);
+            account.setAccountType(type);
+            account.setBalance(balance);
+            account.setCurrency("EUR");
+            entities.add(account);
+            projections.add(new AccountResponse(accountNo, type, balance, "EUR"));
+        }
+        entityResponse = new GenericResponse<>("Successfully fetched customer accounts", entities);
+        projectionResponse = new GenericResponse<>("Successfully fetched customer accounts", projections);
+    }
+
+    @Benchmark
+    public byte[] accountEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entityResponse);
+    }
+
+    @Benchmark
+    public byte[] accountProjections() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(projectionResponse);
+    }
+}
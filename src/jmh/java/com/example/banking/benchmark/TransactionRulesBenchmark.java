@@ -0,0 +1,89 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.models.Account;
+import com.example.banking.models.AccountType;
+import com.example.banking.models.Customer;
+import com.example.banking.models.Money;
+import com.example.banking.models.TransactionType;
+import com.example.banking.services.TransactionRule;
+import com.example.banking.services.TransactionRuleSet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transfer to another customer passing every rule (the whole chain runs) and a withdrawal from a savings
+ * account rejected by the first rule, on the compiled default rules. {@code hardCoded} is the equivalent
+ * transfer check as it was written in {@code CustomerService} before the rules engine. Run with
+ * {@code -prof gc} to confirm evaluation does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRulesBenchmark {
+
+    private TransactionRuleSet rules;
+
+    private Account regular;
+
+    private Account saving;
+
+    private Account otherCustomer;
+
+    private Money amount;
+
+    private BigDecimal decimalAmount;
+
+    @Setup
+    public void setUp() throws IOException {
+        rules = TransactionRuleSet.load(new ClassPathResource("transaction-rules.properties"));
+        Customer bob = customer("1234");
+        regular = account(bob, AccountType.REGULAR);
+        saving = account(bob, AccountType.SAVING);
+        otherCustomer = account(customer("9876"), AccountType.REGULAR);
+        decimalAmount = new BigDecimal("1234.56");
+        amount = Money.of(decimalAmount, Money.EUR);
+    }
+
+    @Benchmark
+    public TransactionRule transferPasses() {
+        return rules.firstViolation(TransactionType.TRANSFER, regular, otherCustomer, amount);
+    }
+
+    @Benchmark
+    public TransactionRule savingsWithdrawalRejected() {
+        return rules.firstViolation(TransactionType.WITHDRAW, saving, null, amount);
+    }
+
+    @Benchmark
+    public boolean hardCoded() {
+        if (regular.getAccountType() == AccountType.SAVING) {
+            return false;
+        }
+        boolean isSameCustomer = regular.getCustomer().getId().equals(otherCustomer.getCustomer().getId());
+        if (isSameCustomer && decimalAmount.compareTo(new BigDecimal("100000")) > 0) {
+            return false;
+        }
+        return isSameCustomer || decimalAmount.compareTo(new BigDecimal("15000")) <= 0;
+    }
+
+    private static Customer customer(String id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+
+    private static Account account(Customer customer, AccountType type) {
+        Account account = new Account();
+        account.setCustomer(customer);
+        account.setAccountType(type);
+        account.setCurrency(Money.EUR);
+        return account;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.banking.benchmark;
+
+import com.example.banking.CustomerBankingServiceApplication;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.services.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code CustomerService.transferAmount} against the embedded H2 database: row locks,
+ * balance updates and ledger inserts in one transaction. Transfers alternate direction between two
+ * of Bob's accounts so balances stay stable however long the run is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private CustomerService customerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they override application.properties; SQL logging would dominate the score.
+        context = new SpringApplicationBuilder(CustomerBankingServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        customerService = context.getBean(CustomerService.class);
+        // JMH calls the benchmark from its own worker threads.
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(BenchmarkSupport.authentication(BenchmarkSupport.BOB));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Direction {
+        boolean forward;
+    }
+
+    @Benchmark
+    public BigDecimal transferAmount(Direction direction) {
+        direction.forward = !direction.forward;
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(direction.forward ? "121212121" : "444444444");
+        request.setToAccountNo(direction.forward ? "444444444" : "121212121");
+        request.setAmount(BigDecimal.ONE);
+        return customerService.transferAmount(request);
+    }
+}
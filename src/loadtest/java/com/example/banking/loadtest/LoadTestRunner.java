@@ -0,0 +1,293 @@
+package com.example.banking.loadtest;
+
+import com.example.banking.CustomerBankingServiceApplication;
+import com.example.banking.config.LoadTestDataSeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load generator for the REST API. Each worker logs in as a random seeded customer and then
+ * issues a weighted mix of login, list, deposit, withdraw and transfer calls until the run ends. A share of
+ * transfers ({@code loadtest.hot-ratio}) targets a few hot accounts to measure row-lock contention; those
+ * are reported separately as {@code transfer-hot}. Only requests after the warm-up are recorded.
+ *
+ * <p>Without {@code loadtest.base-url} the application is started in-process with the {@code loadtest}
+ * profile, which seeds the data set. Against an already running instance, start it with that profile and
+ * pass the same {@code loadtest.customers} it was seeded with. {@code loadtest.spring-profiles} adds Spring
+ * profiles to the in-process instance, e.g. {@code virtual-threads} to compare against platform threads.
+ *
+ * <p>Settings are system properties: {@code loadtest.base-url}, {@code loadtest.customers},
+ * {@code loadtest.accounts-per-customer}, {@code loadtest.threads}, {@code loadtest.warmup},
+ * {@code loadtest.duration} (ISO-8601 durations), {@code loadtest.mix}, {@code loadtest.hot-accounts},
+ * {@code loadtest.hot-ratio} and {@code loadtest.report}.
+ */
+public class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final List<String> OPERATIONS = List.of("login", "list", "deposit", "withdraw", "transfer");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final String baseUrl;
+    private final int customers;
+    private final int accountsPerCustomer;
+    private final int threads;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int[] mix;
+    private final int hotAccounts;
+    private final double hotRatio;
+
+    private final Map<String, Object> server = new LinkedHashMap<>();
+
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+
+    LoadTestRunner(String baseUrl, int customers, int accountsPerCustomer) {
+        this.baseUrl = baseUrl;
+        this.customers = customers;
+        this.accountsPerCustomer = accountsPerCustomer;
+        this.threads = Integer.getInteger("loadtest.threads", 32);
+        this.warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        this.duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+        this.mix = parseMix(System.getProperty("loadtest.mix", "login=5,list=40,deposit=20,withdraw=15,transfer=20"));
+        this.hotAccounts = Integer.getInteger("loadtest.hot-accounts", 5);
+        this.hotRatio = Double.parseDouble(System.getProperty("loadtest.hot-ratio", "0.2"));
+        for (String operation : OPERATIONS) {
+            stats.put(operation, new EndpointStats(operation));
+        }
+        stats.put("transfer-hot", new EndpointStats("transfer-hot"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url", "");
+        ConfigurableApplicationContext context = null;
+        int customers = Integer.getInteger("loadtest.customers", 10_000);
+        int accountsPerCustomer = Integer.getInteger("loadtest.accounts-per-customer", 3);
+        String extraProfiles = System.getProperty("loadtest.spring-profiles", "");
+        if (baseUrl.isEmpty()) {
+            List<String> profiles = new ArrayList<>(List.of("loadtest"));
+            for (String profile : extraProfiles.split(",")) {
+                if (!profile.isBlank()) {
+                    profiles.add(profile.trim());
+                }
+            }
+            context = new SpringApplicationBuilder(CustomerBankingServiceApplication.class)
+                    .profiles(profiles.toArray(String[]::new))
+                    .run("--server.port=0",
+                            "--banking.loadtest.customers=" + customers,
+                            "--banking.loadtest.accounts-per-customer=" + accountsPerCustomer);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadTestRunner runner = new LoadTestRunner(baseUrl, customers, accountsPerCustomer);
+            if (context != null) {
+                runner.server.put("javaVersion", Runtime.version().feature());
+                runner.server.put("springProfiles", List.of(context.getEnvironment().getActiveProfiles()));
+                // Spring Boot only honours the property on Java 21+.
+                runner.server.put("virtualThreads", Runtime.version().feature() >= 21
+                        && context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+                runner.server.put("maxPoolSize", context.getEnvironment().getProperty("spring.datasource.hikari.maximum-pool-size", "10"));
+            }
+            runner.run();
+            runner.report(new File(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        measureUntil = measureFrom + duration.toNanos();
+        System.out.printf("Running %d workers against %s: %ds warm-up, %ds measured%n",
+                threads, baseUrl, warmup.toSeconds(), duration.toSeconds());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                new Worker().run();
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+    }
+
+    void report(File file) throws IOException {
+        double seconds = duration.toNanos() / 1_000_000_000.0;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        System.out.printf("%n%-14s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointStats endpoint : stats.values()) {
+            if (endpoint.getRequests() == 0) {
+                continue;
+            }
+            Map<String, Object> summary = endpoint.summary(seconds);
+            endpoints.add(summary);
+            System.out.printf("%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.get("endpoint"), summary.get("requests"), summary.get("errors"), summary.get("throughputPerSec"),
+                    summary.get("p50Ms"), summary.get("p99Ms"), summary.get("p999Ms"), summary.get("maxMs"));
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", baseUrl);
+        config.put("customers", customers);
+        config.put("accountsPerCustomer", accountsPerCustomer);
+        config.put("threads", threads);
+        config.put("durationSec", duration.toSeconds());
+        config.put("hotAccounts", hotAccounts);
+        config.put("hotRatio", hotRatio);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("config", config);
+        result.put("server", server);
+        result.put("endpoints", endpoints);
+        file.getParentFile().mkdirs();
+        MAPPER.writeValue(file, result);
+        System.out.println("\nReport written to " + file);
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.size()];
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            int index = OPERATIONS.indexOf(entry[0].trim());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + entry[0]);
+            }
+            weights[index] = Integer.parseInt(entry[1].trim());
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        return weights;
+    }
+
+    /**
+     * One simulated customer session; keeps its token and re-authenticates on "login" operations.
+     */
+    private class Worker {
+
+        private final int customer = ThreadLocalRandom.current().nextInt(customers);
+
+        private String token;
+
+        void run() throws Exception {
+            login(false);
+            long now;
+            while ((now = System.nanoTime()) < measureUntil) {
+                boolean measured = now >= measureFrom;
+                switch (OPERATIONS.get(pickOperation())) {
+                    case "login" -> login(measured);
+                    case "list" -> call("list", measured, get("/api/v1/customer/accounts"));
+                    case "deposit" -> call("deposit", measured, post("/api/v1/customer/deposit",
+                            "{\"toAccountNo\":\"%s\",\"amount\":10.00}".formatted(ownAccount(true))));
+                    case "withdraw" -> call("withdraw", measured, post("/api/v1/customer/withdraw",
+                            "{\"fromAccountNo\":\"%s\",\"amount\":10.00}".formatted(ownAccount(false))));
+                    default -> transfer(measured);
+                }
+            }
+        }
+
+        private int pickOperation() {
+            int roll = ThreadLocalRandom.current().nextInt(mix[mix.length - 1]);
+            int index = 0;
+            while (roll >= mix[index]) {
+                index++;
+            }
+            return index;
+        }
+
+        private void transfer(boolean measured) throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            boolean hot = random.nextDouble() < hotRatio;
+            String to = hot
+                    ? LoadTestDataSeeder.accountNo(random.nextInt(Math.min(hotAccounts, customers)), 0)
+                    : LoadTestDataSeeder.accountNo(random.nextInt(customers), 0);
+            String body = "{\"fromAccountNo\":\"%s\",\"toAccountNo\":\"%s\",\"amount\":1.00}".formatted(ownAccount(false), to);
+            call(hot ? "transfer-hot" : "transfer", measured, post("/api/v1/customer/transfer", body));
+        }
+
+        /**
+         * A random own account; withdrawals and transfers only pick regular accounts.
+         */
+        private String ownAccount(boolean anyType) {
+            int regular = accountsPerCustomer - accountsPerCustomer / 3;
+            int account = ThreadLocalRandom.current().nextInt(anyType ? accountsPerCustomer : regular);
+            // Savings accounts sit at every third index, so skip over them for regular-only picks.
+            return LoadTestDataSeeder.accountNo(customer, anyType ? account : account + account / 2);
+        }
+
+        private void login(boolean measured) throws Exception {
+            String body = "{\"username\":\"%s\",\"password\":\"%s\"}"
+                    .formatted(LoadTestDataSeeder.username(customer), LoadTestDataSeeder.PASSWORD);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = call("login", measured, request);
+            if (response.statusCode() == 200) {
+                JsonNode json = MAPPER.readTree(response.body());
+                token = json.path("data").path("token").asText();
+            } else if (token == null) {
+                throw new IllegalStateException("Login failed for " + LoadTestDataSeeder.username(customer)
+                        + " (HTTP " + response.statusCode() + "); is the server seeded with the loadtest profile?");
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpResponse<String> call(String endpoint, boolean measured, HttpRequest request) throws Exception {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            if (measured && start < measureUntil) {
+                stats.get(endpoint).record(elapsed, response.statusCode() / 100 == 2);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.banking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process caches. Each cache records statistics, which Spring Boot publishes through the
+ * actuator as {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} and {@code cache.size}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    public static final String TOKEN_REVOCATION_CACHE = "tokenRevocation";
+
+    public static final String IDEMPOTENCY_CACHE = "idempotency";
+
+    public static final String BALANCES_CACHE = "balances";
+
+    public static final String ACCOUNT_OWNERS_CACHE = "accountOwners";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> bankingCacheCustomizer(
+            @Value("${banking.cache.users.spec}") String usersSpec,
+            @Value("${banking.cache.token-revocation.maximum-size:10000}") long revocationMaximumSize,
+            @Value("${jwt.revocation-check-ttl:0s}") Duration revocationCheckTtl,
+            @Value("${banking.cache.idempotency.spec}") String idempotencySpec,
+            @Value("${banking.cache.balances.spec}") String balancesSpec,
+            @Value("${banking.cache.account-owners.spec}") String accountOwnersSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(USERS_CACHE, Caffeine.from(usersSpec).build());
+            cacheManager.registerCustomCache(TOKEN_REVOCATION_CACHE, Caffeine.newBuilder()
+                    .maximumSize(revocationMaximumSize)
+                    .expireAfterWrite(revocationCheckTtl)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(IDEMPOTENCY_CACHE, Caffeine.from(idempotencySpec).build());
+            cacheManager.registerCustomCache(BALANCES_CACHE, Caffeine.from(balancesSpec).build());
+            cacheManager.registerCustomCache(ACCOUNT_OWNERS_CACHE, Caffeine.from(accountOwnersSpec).build());
+        };
+    }
+}
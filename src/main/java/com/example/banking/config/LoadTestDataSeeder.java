@@ -0,0 +1,86 @@
+package com.example.banking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds {@code banking.loadtest.customers} customers with {@code banking.loadtest.accounts-per-customer}
+ * accounts each when the {@code loadtest} profile is active. Names and numbers are deterministic
+ * (see {@link #username(int)} and {@link #accountNo(int, int)}) so a load generator can address any
+ * account without querying the database. Every third account of a customer is a savings account.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    public static final String PASSWORD = "password";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${banking.loadtest.customers}")
+    private int customers;
+
+    @Value("${banking.loadtest.accounts-per-customer}")
+    private int accountsPerCustomer;
+
+    @Value("${banking.loadtest.opening-balance}")
+    private BigDecimal openingBalance;
+
+    public static String username(int customer) {
+        return "load" + customer;
+    }
+
+    public static String accountNo(int customer, int account) {
+        return String.format("L%07d%02d", customer, account);
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> customerRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> accounts = new ArrayList<>(BATCH_SIZE * accountsPerCustomer);
+        for (int c = 0; c < customers; c++) {
+            String userId = "LU" + c;
+            String customerId = "LC" + c;
+            users.add(new Object[]{userId, username(c), "{noop}" + PASSWORD, username(c) + "@example.com", "customer"});
+            customerRows.add(new Object[]{customerId, "Load Customer " + c, userId});
+            for (int a = 0; a < accountsPerCustomer; a++) {
+                accounts.add(new Object[]{accountNo(c, a), customerId, openingBalance, a % 3 == 2 ? "SAVING" : "REGULAR", "EUR"});
+            }
+            if (users.size() == BATCH_SIZE) {
+                flush(users, customerRows, accounts);
+            }
+        }
+        flush(users, customerRows, accounts);
+        logger.info("Seeded {} customers with {} accounts each in {} ms", customers, accountsPerCustomer,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void flush(List<Object[]> users, List<Object[]> customerRows, List<Object[]> accounts) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email, role) VALUES (?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, user_id) VALUES (?, ?, ?)", customerRows);
+        jdbcTemplate.batchUpdate("INSERT INTO account (account_no, customer_id, balance, account_type, currency) VALUES (?, ?, ?, ?, ?)", accounts);
+        users.clear();
+        customerRows.clear();
+        accounts.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.banking.config;
+
+import com.example.banking.services.FileOutboxSink;
+import com.example.banking.services.InMemoryOutboxSink;
+import com.example.banking.services.OutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Path;
+
+/**
+ * Picks the outbox sink named by {@code banking.outbox.sink}; active when {@code banking.outbox.enabled} is
+ * set. Declaring an {@link OutboxSink} bean of your own (for example one publishing to a broker) replaces it.
+ * An auto-configuration, listed in {@code META-INF/spring/...AutoConfiguration.imports} and left out of the
+ * component scan, so it is processed after every application bean and the missing-bean check sees them all.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true")
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    @ConditionalOnProperty(prefix = "banking.outbox", name = "sink", havingValue = "file", matchIfMissing = true)
+    public FileOutboxSink fileOutboxSink(@Value("${banking.outbox.file:${java.io.tmpdir}/banking-outbox.ndjson}") Path file,
+                                         ObjectMapper objectMapper) {
+        return new FileOutboxSink(file, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    @ConditionalOnProperty(prefix = "banking.outbox", name = "sink", havingValue = "memory")
+    public InMemoryOutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a read replica; active when {@code banking.datasource.replica.url} is set.
+ * The primary pool is still configured from {@code spring.datasource.*}, the replica pool from
+ * {@code banking.datasource.replica.*}. Both sit behind a {@link LazyConnectionDataSourceProxy}, which only
+ * fetches a physical connection at the first statement, after the transaction manager has marked the
+ * connection read-only, and takes read-only connections from the replica. Writes and read-write
+ * transactions (including every balance change) always run on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("banking.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${banking.datasource.replica.url}") String url,
+                                              @Value("${banking.datasource.replica.username:sa}") String username,
+                                              @Value("${banking.datasource.replica.password:}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("banking-replica");
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replica);
+        return routing;
+    }
+}
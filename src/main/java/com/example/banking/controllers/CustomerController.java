@@ -1,15 +1,25 @@
 package com.example.banking.controllers;
 
 import com.example.banking.models.Account;
+import com.example.banking.models.TransactionType;
+import com.example.banking.payload.request.BatchMode;
+import com.example.banking.payload.request.BatchTransactionRequest;
 import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.payload.response.BatchTransactionResponse;
 import com.example.banking.payload.response.GenericResponse;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.services.BalanceStreamRegistry;
 import com.example.banking.services.CustomerService;
+import com.example.banking.services.IdempotencyService;
+import com.example.banking.services.LedgerService;
+import com.example.banking.services.PartitionedAccountExecutor;
 import jakarta.validation.Valid;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -19,39 +29,75 @@ import java.util.List;
 @RequestMapping("/api/v1/customer")
 public class CustomerController {
 
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
 
-    private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
+    @Autowired
+    private PartitionedAccountExecutor partitionedExecutor;
 
     @Autowired
-    private CustomerService customerService;
+    private BalanceStreamRegistry balanceStream;
 
 
     @GetMapping("/accounts")
     public ResponseEntity<?> getCustomerAccountList() {
-        List<Account> accountList = customerService.getCustomerAccountList();
+        List<AccountResponse> accountList = customerService.getCustomerAccountList();
         return ResponseEntity.status(200).body(new GenericResponse<>("Successfully fetched customer accounts", accountList));
     }
 
+    @GetMapping(value = "/accounts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAccountBalances() {
+        return balanceStream.subscribe(customerService.getLoggedInUser());
+    }
+
+    @GetMapping("/accounts/{accountNo}/transactions")
+    public ResponseEntity<?> getTransactionHistory(@PathVariable String accountNo,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = LedgerService.DEFAULT_PAGE_SIZE) int limit) {
+        TransactionHistoryResponse history = customerService.getTransactionHistory(accountNo, cursor, limit);
+        return ResponseEntity.status(200).body(new GenericResponse<>("Successfully fetched account transactions", history));
+    }
+
     @PostMapping("/deposit")
-    public ResponseEntity<?> deposit(@Valid @RequestBody TransactionRequest depositReq) {
-        customerService.validate(depositReq, "deposit");
-        logger.error("validation pass");
-        Account depositedAmount = customerService.depositAmount(depositReq);
-        return ResponseEntity.status(201).body(new GenericResponse<>("Deposit successful", depositedAmount));
+    public ResponseEntity<?> deposit(@Valid @RequestBody TransactionRequest depositReq,
+                                     @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        customerService.validate(depositReq, TransactionType.DEPOSIT);
+        return idempotencyService.execute(idempotencyKey, TransactionType.DEPOSIT, depositReq, () -> {
+            Account depositedAmount = partitionedExecutor.deposit(depositReq);
+            return ResponseEntity.status(201).body(new GenericResponse<>("Deposit successful", depositedAmount));
+        });
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<?> withdraw(@Valid @RequestBody TransactionRequest withdrawReq) {
-        customerService.validate(withdrawReq, "withdraw");
-        Account withdrawAmount = customerService.withdrawAmount(withdrawReq);
-        return ResponseEntity.status(200).body(new GenericResponse<>("Withdrawal successful", withdrawAmount));
+    public ResponseEntity<?> withdraw(@Valid @RequestBody TransactionRequest withdrawReq,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        customerService.validate(withdrawReq, TransactionType.WITHDRAW);
+        return idempotencyService.execute(idempotencyKey, TransactionType.WITHDRAW, withdrawReq, () -> {
+            Account withdrawAmount = partitionedExecutor.withdraw(withdrawReq);
+            return ResponseEntity.status(200).body(new GenericResponse<>("Withdrawal successful", withdrawAmount));
+        });
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest transferReq) {
-        customerService.validate(transferReq, "transfer");
-        BigDecimal amountTransfer = customerService.transferAmount(transferReq);
-        return ResponseEntity.status(200).body(new GenericResponse<>("Transfer successful", amountTransfer));
+    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest transferReq,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        customerService.validate(transferReq, TransactionType.TRANSFER);
+        return idempotencyService.execute(idempotencyKey, TransactionType.TRANSFER, transferReq, () -> {
+            BigDecimal amountTransfer = partitionedExecutor.transfer(transferReq);
+            return ResponseEntity.status(200).body(new GenericResponse<>("Transfer successful", amountTransfer));
+        });
+    }
+
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<?> batch(@Valid @RequestBody BatchTransactionRequest batchReq) {
+        BatchTransactionResponse result = customerService.applyBatch(batchReq);
+        if (result.getRejected() > 0 && batchReq.getMode() == BatchMode.ALL_OR_NOTHING) {
+            return ResponseEntity.status(403).body(new GenericResponse<>("Batch rejected", result));
+        }
+        return ResponseEntity.status(200).body(new GenericResponse<>("Batch processed", result));
     }
 
 }
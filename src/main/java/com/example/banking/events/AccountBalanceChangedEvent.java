@@ -0,0 +1,21 @@
+package com.example.banking.events;
+
+import com.example.banking.models.BalanceSnapshot;
+
+import java.util.List;
+
+/**
+ * Published inside a money-moving transaction with the balances it will commit.
+ * Listeners that must only see committed state should use {@code @TransactionalEventListener}.
+ */
+public class AccountBalanceChangedEvent {
+    private final List<BalanceSnapshot> snapshots;
+
+    public AccountBalanceChangedEvent(List<BalanceSnapshot> snapshots) {
+        this.snapshots = List.copyOf(snapshots);
+    }
+
+    public List<BalanceSnapshot> getSnapshots() {
+        return snapshots;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.banking.exception;
 
 import com.example.banking.payload.response.GenericResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
@@ -26,6 +27,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new GenericResponse<>("Invalid Transaction", ex.getMessage()), HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<GenericResponse<String>> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        return new ResponseEntity<>(new GenericResponse<>("Conflict", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<GenericResponse<String>> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex) {
+        return new ResponseEntity<>(new GenericResponse<>("Unprocessable Entity", ex.getMessage()), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<GenericResponse<String>> handleServiceBusyException(ServiceBusyException ex) {
+        return new ResponseEntity<>(new GenericResponse<>("Service Unavailable", ex.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * For clients that only accept an event stream (the balance feed), which cannot be sent a JSON body.
+     */
+    @ExceptionHandler(value = ServiceBusyException.class, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<String> handleServiceBusyExceptionForStream(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body("event: error\ndata: " + ex.getMessage() + "\n\n");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<GenericResponse<String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return new ResponseEntity<>(new GenericResponse<>("Bad Request", ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<GenericResponse<List<String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         BindingResult bindingResult = ex.getBindingResult();
@@ -1,7 +1,19 @@
 package com.example.banking.exception;
 
 public class InvalidTransactionException extends RuntimeException {
+
+    private final RejectionReason reason;
+
     public InvalidTransactionException(String message) {
+        this(message, RejectionReason.NOT_PERMITTED);
+    }
+
+    public InvalidTransactionException(String message, RejectionReason reason) {
         super(message);
+        this.reason = reason;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
     }
-}
\ No newline at end of file
+}
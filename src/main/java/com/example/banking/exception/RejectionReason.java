@@ -0,0 +1,11 @@
+package com.example.banking.exception;
+
+/**
+ * Why a transaction was refused; reported as the outcome of the operation.
+ */
+public enum RejectionReason {
+    INSUFFICIENT_FUNDS,
+    LIMIT_EXCEEDED,
+    UNAUTHORIZED,
+    NOT_PERMITTED
+}
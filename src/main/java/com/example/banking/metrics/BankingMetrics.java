@@ -0,0 +1,103 @@
+package com.example.banking.metrics;
+
+import com.example.banking.exception.InvalidJwtException;
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.ResourceNotFoundException;
+import com.example.banking.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Domain meters. Every timer also serves as the counter for its tags, so request counts per outcome
+ * come from {@code banking.operation} without separate counters.
+ * <ul>
+ *     <li>{@code banking.operation}: latency of service operations and auth steps, tagged {@code operation} and {@code outcome}</li>
+ *     <li>{@code banking.db.lock.wait}: time spent in statements that lock account rows (locking reads and balance
+ *     updates); under contention this is dominated by waiting for the lock</li>
+ *     <li>{@code banking.db.lock.waiting}: threads currently waiting for an account row lock</li>
+ * </ul>
+ * Connection pool usage is published by Spring Boot as {@code hikaricp.connections.*}.
+ */
+@Component
+public class BankingMetrics {
+
+    public static final String OPERATION_TIMER = "banking.operation";
+
+    public static final String LOCK_WAIT_TIMER = "banking.db.lock.wait";
+
+    public static final String LOCK_WAITING_GAUGE = "banking.db.lock.waiting";
+
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry registry;
+
+    private final Timer lockWait;
+
+    private final AtomicInteger waitingForLock = new AtomicInteger();
+
+    public BankingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.lockWait = Timer.builder(LOCK_WAIT_TIMER)
+                .description("Time spent acquiring account row locks")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder(LOCK_WAITING_GAUGE, waitingForLock, AtomicInteger::get)
+                .description("Threads currently waiting for an account row lock")
+                .register(registry);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records an operation that began at {@code startNanos}; {@code failure} is null when it succeeded.
+     */
+    public void record(String operation, long startNanos, Throwable failure) {
+        Timer.builder(OPERATION_TIMER)
+                .tag("operation", operation)
+                .tag("outcome", outcome(failure))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long lockRequested() {
+        waitingForLock.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void lockAcquired(long requestedNanos) {
+        waitingForLock.decrementAndGet();
+        lockWait.record(System.nanoTime() - requestedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return SUCCESS;
+        }
+        if (failure instanceof InvalidTransactionException invalid) {
+            return invalid.getReason().name().toLowerCase(Locale.ROOT);
+        }
+        if (failure instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (failure instanceof AuthenticationException || failure instanceof InvalidJwtException) {
+            return "unauthorized";
+        }
+        if (failure instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        if (failure instanceof ServiceBusyException) {
+            return "busy";
+        }
+        return "error";
+    }
+}
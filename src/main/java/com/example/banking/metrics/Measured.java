@@ -0,0 +1,19 @@
+package com.example.banking.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the annotated bean method in the {@code banking.operation} timer, tagged with
+ * {@code operation} = {@link #value()} and the outcome of the call.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Measured {
+
+    String value();
+}
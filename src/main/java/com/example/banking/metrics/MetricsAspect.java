@@ -0,0 +1,45 @@
+package com.example.banking.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link BankingMetrics} to {@link Measured} methods and to the statements that lock account rows.
+ * Ordered ahead of the transaction interceptor (lowest precedence) so operation timings include the commit.
+ */
+@Aspect
+@Component
+@Order(0)
+public class MetricsAspect {
+
+    @Autowired
+    private BankingMetrics metrics;
+
+    @Around("@annotation(measured)")
+    public Object measure(ProceedingJoinPoint joinPoint, Measured measured) throws Throwable {
+        long start = metrics.start();
+        try {
+            Object result = joinPoint.proceed();
+            metrics.record(measured.value(), start, null);
+            return result;
+        } catch (Throwable failure) {
+            metrics.record(measured.value(), start, failure);
+            throw failure;
+        }
+    }
+
+    @Around("execution(* com.example.banking.repository.AccountRepository.*ForUpdate(..))"
+            + " || execution(* com.example.banking.repository.AccountBalanceRepository.*(..))")
+    public Object measureLockWait(ProceedingJoinPoint joinPoint) throws Throwable {
+        long requested = metrics.lockRequested();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            metrics.lockAcquired(requested);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.banking.models;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.math.BigDecimal;
@@ -13,7 +14,7 @@ public class Account {
     private String accountNo;
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", referencedColumnName = "id")
     @JsonBackReference
     private Customer customer;
@@ -30,6 +31,11 @@ public class Account {
     @Column(name = "currency")
     private String currency;
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version")
+    private long version;
+
     public String getAccountNo() {
         return accountNo;
     }
@@ -69,4 +75,12 @@ public class Account {
     public void setCurrency(@NotBlank String currency) {
         this.currency = currency;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
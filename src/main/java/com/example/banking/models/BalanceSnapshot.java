@@ -0,0 +1,53 @@
+package com.example.banking.models;
+
+import com.example.banking.payload.response.AccountResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable account state stamped with the row version it was read or committed at.
+ * The version orders snapshots so a stale read can never overwrite a newer committed balance.
+ */
+public class BalanceSnapshot {
+    private final String accountNo;
+
+    private final AccountType accountType;
+
+    private final BigDecimal balance;
+
+    private final String currency;
+
+    private final long version;
+
+    public BalanceSnapshot(String accountNo, AccountType accountType, BigDecimal balance, String currency, long version) {
+        this.accountNo = accountNo;
+        this.accountType = accountType;
+        this.balance = balance;
+        this.currency = currency;
+        this.version = version;
+    }
+
+    public String getAccountNo() {
+        return accountNo;
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public AccountResponse toResponse() {
+        return new AccountResponse(accountNo, accountType, balance, currency);
+    }
+}
@@ -35,7 +35,7 @@ public class Customer {
      @Column(name = "phone_no")
     private String phoneNo;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
@@ -0,0 +1,7 @@
+package com.example.banking.models;
+
+
+public enum EntryDirection {
+        CREDIT,
+        DEBIT
+}
@@ -0,0 +1,70 @@
+package com.example.banking.models;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Response of a money-moving request, stored under the caller's Idempotency-Key in the same
+ * transaction as the balance change so that retries can be answered without executing again.
+ */
+@Entity(name = "idempotency_record")
+public class IdempotencyRecord implements Persistable<String> {
+
+    // Idempotency keys are scoped per user: "<username>:<Idempotency-Key header>"
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    // SHA-256 of the operation and request body, so a key reused for a different request is recognised.
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    @Lob
+    @Column(name = "response_body", nullable = false)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    protected IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, String requestHash, int statusCode, String responseBody, Instant createdAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    // Always inserted, never merged: a concurrent insert of the same key must fail on the primary key.
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
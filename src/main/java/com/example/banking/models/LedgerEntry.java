@@ -0,0 +1,81 @@
+package com.example.banking.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One balance movement on one account. Entries are only ever inserted; a transfer writes one DEBIT entry
+ * on the sender and one CREDIT entry on the receiver, each naming the other side as counterparty.
+ */
+@Immutable
+@Entity(name = "ledger_entry")
+@Table(name = "ledger_entry", indexes = @Index(name = "idx_ledger_account_time", columnList = "account_no, created_at, id"))
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_no", nullable = false, updatable = false)
+    private String accountNo;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, updatable = false)
+    private EntryDirection direction;
+
+    @Column(name = "counterparty_account_no", updatable = false)
+    private String counterpartyAccountNo;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "running_balance", nullable = false, updatable = false)
+    private BigDecimal runningBalance;
+
+    protected LedgerEntry() {}
+
+    public LedgerEntry(String accountNo, BigDecimal amount, EntryDirection direction, String counterpartyAccountNo,
+                       Instant createdAt, BigDecimal runningBalance) {
+        this.accountNo = accountNo;
+        this.amount = amount;
+        this.direction = direction;
+        this.counterpartyAccountNo = counterpartyAccountNo;
+        this.createdAt = createdAt;
+        this.runningBalance = runningBalance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAccountNo() {
+        return accountNo;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public EntryDirection getDirection() {
+        return direction;
+    }
+
+    public String getCounterpartyAccountNo() {
+        return counterpartyAccountNo;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public BigDecimal getRunningBalance() {
+        return runningBalance;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.banking.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A committed balance change waiting in the outbox. Relays deliver at least once, so consumers should
+ * drop an event whose {@code version} is not above the last one they applied for the account.
+ */
+public class OutboxEvent {
+    public static final String BALANCE_CHANGED = "BALANCE_CHANGED";
+
+    private final Long id;
+
+    private final String eventType;
+
+    private final String accountNo;
+
+    private final AccountType accountType;
+
+    private final BigDecimal balance;
+
+    private final String currency;
+
+    private final long version;
+
+    private final Instant createdAt;
+
+    public OutboxEvent(Long id, String eventType, String accountNo, AccountType accountType, BigDecimal balance,
+                       String currency, long version, Instant createdAt) {
+        this.id = id;
+        this.eventType = eventType;
+        this.accountNo = accountNo;
+        this.accountType = accountType;
+        this.balance = balance;
+        this.currency = currency;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public static OutboxEvent balanceChanged(BalanceSnapshot snapshot, Instant createdAt) {
+        return new OutboxEvent(null, BALANCE_CHANGED, snapshot.getAccountNo(), snapshot.getAccountType(),
+                snapshot.getBalance(), snapshot.getCurrency(), snapshot.getVersion(), createdAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getAccountNo() {
+        return accountNo;
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.banking.models;
+
+
+public enum TransactionType {
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+}
@@ -0,0 +1,60 @@
+package com.example.banking.models;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Credit still owed to the receiver of a transfer whose debit has committed on another partition.
+ * Inserted with the debit and deleted with the credit, so a transfer interrupted between the two
+ * transactions is resumed instead of lost.
+ */
+@Entity(name = "transfer_handoff")
+public class TransferHandoff {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_account_no", nullable = false, updatable = false)
+    private String fromAccountNo;
+
+    @Column(name = "to_account_no", nullable = false, updatable = false)
+    private String toAccountNo;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    protected TransferHandoff() {}
+
+    public TransferHandoff(String fromAccountNo, String toAccountNo, BigDecimal amount, Instant createdAt) {
+        this.fromAccountNo = fromAccountNo;
+        this.toAccountNo = toAccountNo;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFromAccountNo() {
+        return fromAccountNo;
+    }
+
+    public String getToAccountNo() {
+        return toAccountNo;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.banking.payload.request;
+
+public enum BatchMode {
+    // Either every operation is applied or none is.
+    ALL_OR_NOTHING,
+    // Valid operations are applied, rejected ones are reported and skipped.
+    BEST_EFFORT
+}
@@ -0,0 +1,55 @@
+package com.example.banking.payload.request;
+
+import com.example.banking.models.TransactionType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public class BatchOperation {
+
+    @NotNull(message = "type must not be null")
+    private TransactionType type;
+
+    private String fromAccountNo;
+
+    private String toAccountNo;
+
+    @NotNull(message = "amount must not be null")
+    @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be greater than zero")
+    @Digits(integer = 13, fraction = 2, message = "Amount must have at most 13 digits and 2 decimal places")
+    private BigDecimal amount;
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public String getFromAccountNo() {
+        return fromAccountNo;
+    }
+
+    public void setFromAccountNo(String fromAccountNo) {
+        this.fromAccountNo = fromAccountNo;
+    }
+
+    public String getToAccountNo() {
+        return toAccountNo;
+    }
+
+    public void setToAccountNo(String toAccountNo) {
+        this.toAccountNo = toAccountNo;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
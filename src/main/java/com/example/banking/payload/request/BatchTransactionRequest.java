@@ -0,0 +1,36 @@
+package com.example.banking.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchTransactionRequest {
+
+    public static final int MAX_OPERATIONS = 5000;
+
+    @NotNull(message = "mode must not be null")
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+
+    @NotEmpty(message = "operations must not be empty")
+    @Size(max = MAX_OPERATIONS, message = "A batch cannot contain more than 5000 operations")
+    private List<@Valid BatchOperation> operations;
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(BatchMode mode) {
+        this.mode = mode;
+    }
+
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+}
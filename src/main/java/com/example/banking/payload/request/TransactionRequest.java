@@ -2,6 +2,7 @@ package com.example.banking.payload.request;
 
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
@@ -13,6 +14,7 @@ public class TransactionRequest {
 
     @NotNull(message = "amount must not be null")
     @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be greater than zero")
+    @Digits(integer = 13, fraction = 2, message = "Amount must have at most 13 digits and 2 decimal places")
     private BigDecimal amount;
 
     public String getFromAccountNo() {
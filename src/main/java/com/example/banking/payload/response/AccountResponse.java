@@ -0,0 +1,42 @@
+package com.example.banking.payload.response;
+
+import com.example.banking.models.AccountType;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of an account, selected directly by JPQL constructor expression
+ * so listing accounts never materialises managed {@code Account} entities.
+ */
+public class AccountResponse {
+    private final String accountNo;
+
+    private final AccountType accountType;
+
+    private final BigDecimal balance;
+
+    private final String currency;
+
+    public AccountResponse(String accountNo, AccountType accountType, BigDecimal balance, String currency) {
+        this.accountNo = accountNo;
+        this.accountType = accountType;
+        this.balance = balance;
+        this.currency = currency;
+    }
+
+    public String getAccountNo() {
+        return accountNo;
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.banking.payload.response;
+
+public class BatchItemResult {
+    private final int index;
+
+    private final BatchItemStatus status;
+
+    private final String message;
+
+    public BatchItemResult(int index, BatchItemStatus status, String message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
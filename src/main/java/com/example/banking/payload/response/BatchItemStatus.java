@@ -0,0 +1,8 @@
+package com.example.banking.payload.response;
+
+public enum BatchItemStatus {
+    APPLIED,
+    REJECTED,
+    // Valid, but not applied because another operation of an ALL_OR_NOTHING batch was rejected.
+    SKIPPED
+}
@@ -0,0 +1,38 @@
+package com.example.banking.payload.response;
+
+import com.example.banking.payload.request.BatchMode;
+
+import java.util.List;
+
+public class BatchTransactionResponse {
+    private final BatchMode mode;
+
+    private final int applied;
+
+    private final int rejected;
+
+    private final List<BatchItemResult> results;
+
+    public BatchTransactionResponse(BatchMode mode, int applied, int rejected, List<BatchItemResult> results) {
+        this.mode = mode;
+        this.applied = applied;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.banking.payload.response;
+
+import com.example.banking.models.LedgerEntry;
+
+import java.util.List;
+
+public class TransactionHistoryResponse {
+    private final List<LedgerEntry> transactions;
+
+    // Opaque cursor for the next (older) page; null when this page is the last one.
+    private final String nextCursor;
+
+    public TransactionHistoryResponse(List<LedgerEntry> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<LedgerEntry> getTransactions() {
+        return transactions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
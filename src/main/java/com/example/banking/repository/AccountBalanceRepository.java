@@ -0,0 +1,68 @@
+package com.example.banking.repository;
+
+import com.example.banking.models.AccountType;
+import com.example.banking.models.BalanceSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Balance changes as single atomic UPDATE statements. The row lock is taken by the UPDATE itself and the
+ * debit condition is evaluated against the locked row, so there is no read-modify-write window.
+ * An update count of zero means no row matched. Otherwise the new balance and version are read back
+ * under the row lock the UPDATE still holds, so no other write can come in between. The statements are
+ * plain SQL, so they run on any database.
+ */
+@Repository
+public class AccountBalanceRepository {
+
+    private static final String DEBIT = "UPDATE account SET balance = balance - ?, version = version + 1 WHERE account_no = ? AND balance >= ?";
+
+    private static final String CREDIT = "UPDATE account SET balance = balance + ?, version = version + 1 WHERE account_no = ?";
+
+    private static final String SNAPSHOT_OF = "SELECT account_no, account_type, balance, currency, version FROM account WHERE account_no = ?";
+
+    private static final RowMapper<BalanceSnapshot> SNAPSHOT = (rs, rowNum) -> new BalanceSnapshot(
+            rs.getString("account_no"), AccountType.valueOf(rs.getString("account_type")),
+            rs.getBigDecimal("balance"), rs.getString("currency"), rs.getLong("version"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Subtracts {@code amount} if the account holds at least that much; empty if it does not (or does not exist).
+     */
+    public Optional<BalanceSnapshot> debit(String accountNo, BigDecimal amount) {
+        return snapshotIfUpdated(jdbcTemplate.update(DEBIT, amount, accountNo, amount), accountNo);
+    }
+
+    /**
+     * Adds {@code amount}; empty if the account does not exist.
+     */
+    public Optional<BalanceSnapshot> credit(String accountNo, BigDecimal amount) {
+        return snapshotIfUpdated(jdbcTemplate.update(CREDIT, amount, accountNo), accountNo);
+    }
+
+    /**
+     * Locks the rows of {@code accountNos} in account number order, the order every multi-account write locks in,
+     * until the surrounding transaction ends.
+     */
+    public void lock(Collection<String> accountNos) {
+        String placeholders = String.join(", ", Collections.nCopies(accountNos.size(), "?"));
+        jdbcTemplate.query("SELECT account_no FROM account WHERE account_no IN (" + placeholders + ") ORDER BY account_no FOR UPDATE",
+                (rs, rowNum) -> rs.getString(1), accountNos.toArray());
+    }
+
+    private Optional<BalanceSnapshot> snapshotIfUpdated(int updated, String accountNo) {
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query(SNAPSHOT_OF, SNAPSHOT, accountNo).stream().findFirst();
+    }
+}
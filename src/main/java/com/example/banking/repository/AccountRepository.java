@@ -1,12 +1,67 @@
 package com.example.banking.repository;
 
 import com.example.banking.models.Account;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.payload.response.AccountResponse;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Query methods run in read-only transactions (flush disabled) unless they join a read-write one, so
+ * standalone reads are routed to the read replica when one is configured.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface AccountRepository extends JpaRepository<Account, String> {
 
     Optional<Account> findByAccountNo(String accountNo);
+
+    @Query("SELECT new com.example.banking.payload.response.AccountResponse(a.accountNo, a.accountType, a.balance, a.currency)"
+            + " FROM account a JOIN a.customer c JOIN c.user u WHERE u.username = :username ORDER BY a.accountNo")
+    List<AccountResponse> findAccountSummariesByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.example.banking.models.BalanceSnapshot(a.accountNo, a.accountType, a.balance, a.currency, a.version)"
+            + " FROM account a JOIN a.customer c JOIN c.user u WHERE u.username = :username ORDER BY a.accountNo")
+    List<BalanceSnapshot> findBalanceSnapshotsByUsername(@Param("username") String username);
+
+    /**
+     * Returns the username owning the account, or empty if the account does not exist.
+     * Used for read-only ownership checks that need no account state.
+     */
+    @Query("SELECT u.username FROM account a JOIN a.customer c JOIN c.user u WHERE a.accountNo = :accountNo")
+    Optional<String> findOwnerUsernameByAccountNo(@Param("accountNo") String accountNo);
+
+    /**
+     * Loads the account with its owning customer and user for the rule checks, without a lock. The entity is
+     * read-only: balances are changed through {@link AccountBalanceRepository}, never by dirty checking.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT a FROM account a JOIN FETCH a.customer c JOIN FETCH c.user WHERE a.accountNo = :accountNo")
+    Optional<Account> findWithOwnerByAccountNo(@Param("accountNo") String accountNo);
+
+    /**
+     * Read-only variant of {@link #findWithOwnerByAccountNo} for several accounts in one query.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT a FROM account a JOIN FETCH a.customer c JOIN FETCH c.user WHERE a.accountNo IN :accountNos")
+    List<Account> findAllWithOwnerByAccountNoIn(@Param("accountNos") Collection<String> accountNos);
+
+    /**
+     * Locks all the given accounts with one query (SELECT ... FOR UPDATE), in account number order, fetching
+     * their owners alongside. The locks are held until the surrounding transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM account a JOIN FETCH a.customer c JOIN FETCH c.user WHERE a.accountNo IN :accountNos ORDER BY a.accountNo")
+    List<Account> findAllByAccountNoInForUpdate(@Param("accountNos") Collection<String> accountNos);
 }
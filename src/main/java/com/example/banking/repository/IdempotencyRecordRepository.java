@@ -0,0 +1,19 @@
+package com.example.banking.repository;
+
+import com.example.banking.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Replays must see the latest committed record, so the lookup runs read-write and is never routed to a read replica.
+     */
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String key);
+}
@@ -0,0 +1,30 @@
+package com.example.banking.repository;
+
+import com.example.banking.models.LedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * History reads are keyset-paginated on (created_at, id), newest first, so every page is a bounded
+ * range scan of idx_ledger_account_time regardless of how deep into the history the client is.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    @Query("SELECT l FROM ledger_entry l WHERE l.accountNo = :accountNo ORDER BY l.createdAt DESC, l.id DESC")
+    List<LedgerEntry> findLatest(@Param("accountNo") String accountNo, Limit limit);
+
+    @Query("SELECT l FROM ledger_entry l WHERE l.accountNo = :accountNo"
+            + " AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id))"
+            + " ORDER BY l.createdAt DESC, l.id DESC")
+    List<LedgerEntry> findBefore(@Param("accountNo") String accountNo, @Param("createdAt") Instant createdAt,
+                                 @Param("id") Long id, Limit limit);
+}
@@ -0,0 +1,41 @@
+package com.example.banking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * How far each append log has been loaded into the database. The offset is advanced in the transaction
+ * that inserts the loaded records, so after a restart loading resumes exactly behind the last committed batch.
+ */
+@Repository
+public class LedgerLogOffsetRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<Offset> find(String logName) {
+        return jdbcTemplate.query("SELECT segment, segment_offset FROM ledger_log_offset WHERE log_name = ?",
+                (rs, rowNum) -> new Offset(rs.getLong("segment"), rs.getInt("segment_offset")), logName)
+                .stream()
+                .findFirst();
+    }
+
+    public Offset create(String logName, long segment) {
+        jdbcTemplate.update("INSERT INTO ledger_log_offset (log_name, segment, segment_offset) VALUES (?, ?, 0)", logName, segment);
+        return new Offset(segment, 0);
+    }
+
+    public void advance(String logName, Offset offset) {
+        jdbcTemplate.update("UPDATE ledger_log_offset SET segment = ?, segment_offset = ? WHERE log_name = ?",
+                offset.segment(), offset.position(), logName);
+    }
+
+    /**
+     * Byte {@code position} within segment file number {@code segment}.
+     */
+    public record Offset(long segment, int position) {
+    }
+}
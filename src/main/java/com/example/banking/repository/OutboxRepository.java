@@ -0,0 +1,57 @@
+package com.example.banking.repository;
+
+import com.example.banking.models.AccountType;
+import com.example.banking.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The {@code outbox_event} table. Relays claim the oldest events with {@code FOR UPDATE SKIP LOCKED}, so
+ * any number of relays (threads or instances) drain it side by side without waiting on each other's rows.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT = "INSERT INTO outbox_event"
+            + " (event_type, account_no, account_type, balance, currency, version, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM = "SELECT id, event_type, account_no, account_type, balance, currency, version, created_at"
+            + " FROM outbox_event ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE SKIP LOCKED";
+
+    private static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"), rs.getString("event_type"), rs.getString("account_no"),
+            AccountType.valueOf(rs.getString("account_type")), rs.getBigDecimal("balance"),
+            rs.getString("currency"), rs.getLong("version"), rs.getTimestamp("created_at").toInstant());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getEventType());
+            ps.setString(2, event.getAccountNo());
+            ps.setString(3, event.getAccountType().name());
+            ps.setBigDecimal(4, event.getBalance());
+            ps.setString(5, event.getCurrency());
+            ps.setLong(6, event.getVersion());
+            ps.setTimestamp(7, Timestamp.from(event.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Locks up to {@code limit} of the oldest events no other transaction holds; must run in a transaction.
+     */
+    public List<OutboxEvent> claim(int limit) {
+        return jdbcTemplate.query(CLAIM, EVENT, limit);
+    }
+
+    public void deleteAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate("DELETE FROM outbox_event WHERE id = ?", events, events.size(),
+                (ps, event) -> ps.setLong(1, event.getId()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.banking.repository;
+
+import com.example.banking.models.TransferHandoff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransferHandoffRepository extends JpaRepository<TransferHandoff, Long> {
+
+    /**
+     * Deletes the hand-off in the transaction that credits it. Returns 0 when another transaction already claimed it.
+     */
+    @Modifying
+    @Query("DELETE FROM transfer_handoff h WHERE h.id = :id")
+    int claim(@Param("id") Long id);
+}
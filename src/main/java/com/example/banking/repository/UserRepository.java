@@ -1,12 +1,44 @@
 package com.example.banking.repository;
 
+import com.example.banking.config.CacheConfig;
 import com.example.banking.models.User;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, String> {
+
+    /**
+     * Cached by username so that login storms do not turn into identical queries on the users table.
+     * Unknown usernames are not cached, so newly created users are visible immediately.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, unless = "#result == null")
     Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    // Any write to a user (password or role change, removal) drops its cached copies. Redeclared methods take
+    // their transaction from this interface, so the writes must opt out of its read-only default.
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#p0.username"),
+            @CacheEvict(cacheNames = CacheConfig.TOKEN_REVOCATION_CACHE, key = "#p0.username")
+    })
+    <S extends User> S save(S user);
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#p0.username"),
+            @CacheEvict(cacheNames = CacheConfig.TOKEN_REVOCATION_CACHE, key = "#p0.username")
+    })
+    void delete(User user);
 }
@@ -1,8 +1,8 @@
 package com.example.banking.security;
 
 import com.example.banking.exception.InvalidJwtException;
-import com.example.banking.models.User;
-import com.example.banking.repository.UserRepository;
+import com.example.banking.metrics.BankingMetrics;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,7 +19,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
-import java.util.Optional;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
 
@@ -27,7 +26,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserRepository userRepository;
+    private TokenRevocationChecker revocationChecker;
+
+    @Autowired
+    private BankingMetrics metrics;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -42,14 +44,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         try {
 
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            if (jwt != null) {
+                Claims claims = validate(jwt);
 
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                Optional<User> user = userRepository.findByUsername(username);
+                // The principal is built from the verified claims only; no user lookup on the request path.
+                UserPrincipal principal = jwtUtils.getPrincipal(claims);
+                revocationChecker.check(principal.getUsername());
 
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(user, user.get().getPassword(), null);
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -65,6 +68,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Claims validate(String jwt) {
+        long start = metrics.start();
+        try {
+            Claims claims = jwtUtils.parseAndValidate(jwt);
+            metrics.record("jwt_validation", start, null);
+            return claims;
+        } catch (InvalidJwtException e) {
+            metrics.record("jwt_validation", start, e);
+            throw e;
+        }
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
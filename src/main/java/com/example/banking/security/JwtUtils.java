@@ -4,10 +4,12 @@ import com.example.banking.exception.InvalidJwtException;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -19,41 +21,56 @@ public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+
+    private static final String ROLE_CLAIM = "role";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    // Built once: both the signing key and the parser are immutable and safe to share between request threads.
+    private Key key;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetails user = (UserDetails) authentication.getPrincipal();
 
+        String role = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null);
+        String userId = user instanceof UserPrincipal principal ? principal.getId() : null;
+
         return Jwts.builder()
                 .setSubject(user.getUsername())
-                .claim("role", user.getAuthorities())
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
-
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the signature and expiry of the token and returns its claims, so callers
+     * only pay for a single parse and HMAC check per request.
+     */
+    public Claims parseAndValidate(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             throw new InvalidJwtException("Invalid JWT signature");
-        }catch (MalformedJwtException e) {
+        } catch (MalformedJwtException e) {
             throw new InvalidJwtException("Invalid JWT token");
         } catch (ExpiredJwtException e) {
             throw new InvalidJwtException("JWT token is expired");
@@ -63,4 +80,18 @@ public class JwtUtils {
             throw new InvalidJwtException("JWT claims string is empty");
         }
     }
+
+    public UserPrincipal getPrincipal(Claims claims) {
+        return new UserPrincipal(claims.get(USER_ID_CLAIM, String.class), claims.getSubject(),
+                claims.get(ROLE_CLAIM, String.class));
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return parseAndValidate(token).getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        parseAndValidate(authToken);
+        return true;
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.banking.security;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.exception.InvalidJwtException;
+import com.example.banking.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Optional guard against tokens of users that were removed after the token was issued.
+ * Positive lookups are kept in the bounded {@code tokenRevocation} cache for {@code jwt.revocation-check-ttl};
+ * a zero TTL (the default) disables the check and keeps request authentication free of database access.
+ */
+@Component
+public class TokenRevocationChecker {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${jwt.revocation-check-ttl:0s}")
+    private Duration revocationCheckTtl;
+
+    public boolean isEnabled() {
+        return !revocationCheckTtl.isZero();
+    }
+
+    public void check(String username) {
+        if (!isEnabled()) {
+            return;
+        }
+        Cache verified = cacheManager.getCache(CacheConfig.TOKEN_REVOCATION_CACHE);
+        if (verified.get(username) != null) {
+            return;
+        }
+        if (!userRepository.existsByUsername(username)) {
+            throw new InvalidJwtException("JWT token has been revoked");
+        }
+        verified.put(username, Boolean.TRUE);
+    }
+}
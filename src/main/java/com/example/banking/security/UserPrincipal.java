@@ -0,0 +1,66 @@
+package com.example.banking.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user as seen by the application. At login it is loaded from the database and carries
+ * the password hash; on every other request it is rebuilt from the verified JWT claims without one.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final String id;
+
+    private final String username;
+
+    private String password;
+
+    private final String role;
+
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(String id, String username, String role) {
+        this(id, username, null, role);
+    }
+
+    public UserPrincipal(String id, String username, String password, String role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.authorities = role == null ? List.of() : List.of(new SimpleGrantedAuthority(role));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.banking.security;
 
 
 import com.example.banking.services.UserDetailServiceImp;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -49,6 +50,8 @@ public class WebSecurityConfig{
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/v1/customer").authenticated()
+                        // The dispatch that closes a balance stream; the request itself was already authenticated.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
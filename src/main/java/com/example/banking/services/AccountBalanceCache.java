@@ -0,0 +1,101 @@
+package com.example.banking.services;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.events.AccountBalanceChangedEvent;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.payload.response.AccountResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional read-through cache of account balances keyed by account number, plus the account numbers
+ * owned by each user. Reads never lock; writes go through {@link #put(BalanceSnapshot)}, which only
+ * replaces an entry with a snapshot of a higher row version. Committed balance changes are written
+ * through after commit, so a rolled back transaction never reaches the cache. Any missing entry makes
+ * the whole lookup a miss and the caller falls back to the database.
+ */
+@Component
+public class AccountBalanceCache {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.cache.balances.enabled:false}")
+    private boolean enabled;
+
+    private Cache<String, BalanceSnapshot> balances;
+
+    private Cache<String, List<String>> accountOwners;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        balances = (Cache<String, BalanceSnapshot>) (Cache<?, ?>)
+                ((CaffeineCache) cacheManager.getCache(CacheConfig.BALANCES_CACHE)).getNativeCache();
+        accountOwners = (Cache<String, List<String>>) (Cache<?, ?>)
+                ((CaffeineCache) cacheManager.getCache(CacheConfig.ACCOUNT_OWNERS_CACHE)).getNativeCache();
+        Gauge.builder("cache.hit.ratio", balances, cache -> cache.stats().hitRate())
+                .tag("cache", CacheConfig.BALANCES_CACHE)
+                .description("Fraction of balance lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached accounts of {@code username}, or {@code null} when any part is not cached.
+     */
+    public List<AccountResponse> getAccounts(String username) {
+        List<String> accountNos = accountOwners.getIfPresent(username);
+        if (accountNos == null) {
+            return null;
+        }
+        List<AccountResponse> accounts = new ArrayList<>(accountNos.size());
+        for (String accountNo : accountNos) {
+            BalanceSnapshot snapshot = balances.getIfPresent(accountNo);
+            if (snapshot == null) {
+                return null;
+            }
+            accounts.add(snapshot.toResponse());
+        }
+        return accounts;
+    }
+
+    public void putAccounts(String username, List<BalanceSnapshot> snapshots) {
+        snapshots.forEach(this::put);
+        accountOwners.put(username, snapshots.stream().map(BalanceSnapshot::getAccountNo).toList());
+    }
+
+    /**
+     * Stores the snapshot unless the cache already holds the same or a newer version of the account.
+     */
+    public void put(BalanceSnapshot snapshot) {
+        balances.asMap().merge(snapshot.getAccountNo(), snapshot,
+                (current, candidate) -> candidate.getVersion() > current.getVersion() ? candidate : current);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBalanceChanged(AccountBalanceChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        event.getSnapshots().forEach(this::put);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.banking.services;
 
+import com.example.banking.metrics.Measured;
 import com.example.banking.payload.request.LoginRequest;
 import com.example.banking.payload.response.JwtResponse;
 import com.example.banking.security.JwtUtils;
@@ -25,6 +26,7 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authManager;
 
+    @Measured("login")
     public JwtResponse authenticateUser(LoginRequest loginRequest) throws BadCredentialsException {
 
         try {
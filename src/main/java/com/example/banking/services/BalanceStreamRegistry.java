@@ -0,0 +1,382 @@
+package com.example.banking.services;
+
+import com.example.banking.events.AccountBalanceChangedEvent;
+import com.example.banking.exception.ServiceBusyException;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events feed of committed balance changes, one stream per subscription and only for the
+ * subscriber's own accounts. A new stream first receives the current balance of every account.
+ * <p>
+ * Sending never runs on the committing thread. Each subscriber keeps at most one pending balance per
+ * account: a newer version replaces one that has not been sent yet, so a slow client receives the latest
+ * balances instead of a growing backlog. A small pool ({@code banking.stream.threads}) sends them, one
+ * batch per subscriber at a time, and writes a heartbeat comment every
+ * {@code banking.stream.heartbeat-interval} so idle connections stay open through proxies. Streams are
+ * capped at {@code banking.stream.max-subscribers} overall and {@code max-per-customer} per customer.
+ * <p>
+ * A write to a client that stops reading blocks its sending thread until the server's write timeout, and
+ * cannot be interrupted. A subscriber whose write has been blocked for longer than
+ * {@code banking.stream.send-timeout} is dropped: it receives nothing more, its stream is ended once the
+ * write returns, and the pool gets a replacement thread meanwhile, so stuck clients do not hold up the
+ * other streams. At most {@code banking.stream.max-blocked-writes} replacements run at a time.
+ */
+@Service
+public class BalanceStreamRegistry implements SmartLifecycle {
+
+    public static final String SUBSCRIBERS_GAUGE = "banking.stream.subscribers";
+
+    public static final String CONFLATED_COUNTER = "banking.stream.conflated";
+
+    public static final String DROPPED_COUNTER = "banking.stream.dropped";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${banking.stream.max-per-customer:5}")
+    private int maxPerCustomer;
+
+    @Value("${banking.stream.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+
+    @Value("${banking.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${banking.stream.threads:2}")
+    private int threads;
+
+    @Value("${banking.stream.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Value("${banking.stream.max-blocked-writes:64}")
+    private int maxBlockedWrites;
+
+    private final Map<String, Set<Subscriber>> subscribersByCustomer = new ConcurrentHashMap<>();
+
+    private final Map<String, String> ownerByAccount = new ConcurrentHashMap<>();
+
+    private int subscriberCount;
+
+    private volatile boolean running;
+
+    private ThreadPoolExecutor sender;
+
+    // Guarded by sender: threads added to the pool in place of ones stuck in a dropped subscriber's write.
+    private int replacements;
+
+    // Heartbeats and send deadlines are checked on their own thread, which never writes to a client.
+    private ScheduledExecutorService scheduler;
+
+    private Counter conflated;
+
+    private Counter dropped;
+
+    public SseEmitter subscribe(String username) {
+        if (!running) {
+            throw new ServiceBusyException("Balance streams are not available");
+        }
+        List<BalanceSnapshot> accounts = accountRepository.findBalanceSnapshotsByUsername(username);
+        Subscriber subscriber = new Subscriber(username, accounts.stream().map(BalanceSnapshot::getAccountNo).toList());
+        register(subscriber);
+        accounts.forEach(subscriber::offer);
+        // Read again once registered: a change committed in between is sent even though the listener missed it.
+        accountRepository.findBalanceSnapshotsByUsername(username).forEach(subscriber::offer);
+        return subscriber.emitter;
+    }
+
+    private synchronized void register(Subscriber subscriber) {
+        if (subscriberCount >= maxSubscribers) {
+            throw new ServiceBusyException("Too many balance streams, retry later");
+        }
+        Set<Subscriber> subscribers = subscribersByCustomer.computeIfAbsent(subscriber.username, username -> new CopyOnWriteArraySet<>());
+        if (subscribers.size() >= maxPerCustomer) {
+            throw new ServiceBusyException("Too many balance streams for this customer, close one and retry");
+        }
+        subscribers.add(subscriber);
+        subscriber.accountNos.forEach(accountNo -> ownerByAccount.put(accountNo, subscriber.username));
+        subscriberCount++;
+        subscriber.emitter.onCompletion(() -> unregister(subscriber));
+        subscriber.emitter.onTimeout(() -> unregister(subscriber));
+        subscriber.emitter.onError(error -> unregister(subscriber));
+    }
+
+    private synchronized void unregister(Subscriber subscriber) {
+        Set<Subscriber> subscribers = subscribersByCustomer.get(subscriber.username);
+        if (subscribers == null || !subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriberCount--;
+        if (subscribers.isEmpty()) {
+            subscribersByCustomer.remove(subscriber.username);
+            subscriber.accountNos.forEach(ownerByAccount::remove);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBalanceChanged(AccountBalanceChangedEvent event) {
+        if (ownerByAccount.isEmpty()) {
+            return;
+        }
+        for (BalanceSnapshot snapshot : event.getSnapshots()) {
+            String owner = ownerByAccount.get(snapshot.getAccountNo());
+            Set<Subscriber> subscribers = owner == null ? null : subscribersByCustomer.get(owner);
+            if (subscribers != null) {
+                subscribers.forEach(subscriber -> subscriber.offer(snapshot));
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribersByCustomer.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private void dropBlocked() {
+        long now = System.nanoTime();
+        subscribersByCustomer.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.dropIfBlocked(now)));
+    }
+
+    private boolean addReplacement() {
+        synchronized (sender) {
+            if (replacements >= maxBlockedWrites) {
+                return false;
+            }
+            replacements++;
+            sender.setMaximumPoolSize(threads + replacements);
+            sender.setCorePoolSize(threads + replacements);
+            return true;
+        }
+    }
+
+    private void removeReplacement() {
+        synchronized (sender) {
+            replacements--;
+            sender.setCorePoolSize(threads + replacements);
+            sender.setMaximumPoolSize(threads + replacements);
+        }
+    }
+
+    private synchronized int subscriberCount() {
+        return subscriberCount;
+    }
+
+    @Override
+    public void start() {
+        conflated = Counter.builder(CONFLATED_COUNTER)
+                .description("Balance updates replaced by a newer one before they were sent")
+                .register(meterRegistry);
+        dropped = Counter.builder(DROPPED_COUNTER)
+                .description("Balance streams ended because a write stayed blocked past the send timeout")
+                .register(meterRegistry);
+        Gauge.builder(SUBSCRIBERS_GAUGE, this, BalanceStreamRegistry::subscriberCount)
+                .description("Open balance streams")
+                .register(meterRegistry);
+        sender = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "balance-stream"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "balance-stream-scheduler"));
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        // Checked twice per timeout, so a blocked write is dropped at most one and a half timeouts after it started.
+        long check = Math.max(sendTimeout.toMillis() / 2, 1);
+        scheduler.scheduleAtFixedRate(this::dropBlocked, check, check, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        List<Subscriber> open = new ArrayList<>();
+        subscribersByCustomer.values().forEach(open::addAll);
+        open.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final class Subscriber {
+
+        private final String username;
+
+        private final List<String> accountNos;
+
+        private final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+
+        // Guarded by this: the newest version seen per account, what is still to be sent and whether a send is scheduled.
+        private final Map<String, Long> versions = new HashMap<>();
+
+        private final Map<String, BalanceSnapshot> pending = new LinkedHashMap<>();
+
+        private boolean heartbeatDue;
+
+        private boolean scheduled;
+
+        // Guarded by writeState: when the write in progress started (0 when none), and whether it was given up on.
+        private final Object writeState = new Object();
+
+        private long writingSince;
+
+        private boolean abandoned;
+
+        private boolean replaced;
+
+        private Subscriber(String username, List<String> accountNos) {
+            this.username = username;
+            this.accountNos = accountNos;
+        }
+
+        private void offer(BalanceSnapshot snapshot) {
+            synchronized (this) {
+                Long version = versions.get(snapshot.getAccountNo());
+                if (version != null && version >= snapshot.getVersion()) {
+                    return;
+                }
+                versions.put(snapshot.getAccountNo(), snapshot.getVersion());
+                if (pending.put(snapshot.getAccountNo(), snapshot) != null) {
+                    conflated.increment();
+                }
+                if (!schedule()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+                if (!schedule()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        private boolean schedule() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private void dispatch() {
+            try {
+                sender.execute(this::send);
+            } catch (RuntimeException e) {
+                // Shutting down; stop() completes the stream.
+            }
+        }
+
+        /**
+         * Only one send per subscriber runs at a time: it keeps going until nothing is pending.
+         */
+        private void send() {
+            while (true) {
+                List<BalanceSnapshot> batch;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (pending.isEmpty() && !heartbeatDue) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    heartbeat = heartbeatDue && batch.isEmpty();
+                    heartbeatDue = false;
+                }
+                try {
+                    if (heartbeat) {
+                        write(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (BalanceSnapshot snapshot : batch) {
+                        write(SseEmitter.event()
+                                .name("balance")
+                                .id(snapshot.getAccountNo() + ":" + snapshot.getVersion())
+                                .data(snapshot.toResponse()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or was dropped; the emitter's completion callback may never run.
+                    unregister(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (writeState) {
+                writingSince = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (writeState) {
+                    writingSince = 0;
+                    if (replaced) {
+                        replaced = false;
+                        removeReplacement();
+                    }
+                }
+            }
+            synchronized (writeState) {
+                if (abandoned) {
+                    throw new IOException("Balance stream write blocked for more than " + sendTimeout);
+                }
+            }
+        }
+
+        /**
+         * Gives up on the stream if its current write has been blocked past the send timeout. The emitter
+         * cannot be completed while the write holds it, so the writer does that once its write returns.
+         */
+        private void dropIfBlocked(long now) {
+            synchronized (writeState) {
+                if (writingSince == 0 || abandoned || now - writingSince < sendTimeout.toNanos()) {
+                    return;
+                }
+                abandoned = true;
+                replaced = addReplacement();
+            }
+            unregister(this);
+            dropped.increment();
+        }
+    }
+}
@@ -1,26 +1,49 @@
 package com.example.banking.services;
 
+import com.example.banking.events.AccountBalanceChangedEvent;
 import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.RejectionReason;
 import com.example.banking.exception.ResourceNotFoundException;
+import com.example.banking.metrics.Measured;
 import com.example.banking.models.Account;
-import com.example.banking.models.AccountType;
-import com.example.banking.models.Customer;
-import com.example.banking.models.User;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.models.EntryDirection;
+import com.example.banking.models.LedgerEntry;
+import com.example.banking.models.Money;
+import com.example.banking.models.TransactionType;
+import com.example.banking.payload.request.BatchMode;
+import com.example.banking.payload.request.BatchOperation;
+import com.example.banking.payload.request.BatchTransactionRequest;
 import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.payload.response.BatchItemResult;
+import com.example.banking.payload.response.BatchItemStatus;
+import com.example.banking.payload.response.BatchTransactionResponse;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.repository.AccountBalanceRepository;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.CustomerRepository;
 import com.example.banking.repository.UserRepository;
+import com.example.banking.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 
 @Service
@@ -37,140 +60,471 @@ public class CustomerService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountBalanceCache balanceCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionRuleEngine ruleEngine;
+
     public String getLoggedInUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Object principal = authentication.getPrincipal();
-        Optional<User> optionalUser = (Optional<User>) principal;
-        return optionalUser.get().getUsername();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return principal.getUsername();
 
     }
 
-    @Transactional
-    public List<Account> getCustomerAccountList() throws ResourceNotFoundException {
+    @Measured("list_accounts")
+    public List<AccountResponse> getCustomerAccountList() throws ResourceNotFoundException {
         String username = getLoggedInUser();
-        Optional<Customer> customer = customerRepository.findCustomerAccounts(username);
-        if (customer.isEmpty()) {
+        List<AccountResponse> accounts = balanceCache.isEnabled()
+                ? getCachedAccountList(username)
+                : accountRepository.findAccountSummariesByUsername(username);
+        // Only an empty result needs the extra existence check to tell "no accounts" from "no customer".
+        if (accounts.isEmpty() && !customerRepository.existsByUserUsername(username)) {
             logger.error("Customer not found with: {}", username);
             throw new ResourceNotFoundException("Customer not found");
         }
-        return customer.get().getAccounts();
+        return accounts;
+    }
+
+    private List<AccountResponse> getCachedAccountList(String username) {
+        List<AccountResponse> cached = balanceCache.getAccounts(username);
+        if (cached != null) {
+            return cached;
+        }
+        List<BalanceSnapshot> snapshots = accountRepository.findBalanceSnapshotsByUsername(username);
+        balanceCache.putAccounts(username, snapshots);
+        return snapshots.stream().map(BalanceSnapshot::toResponse).toList();
     }
 
+    @Measured("deposit")
     @Transactional
     public Account depositAmount(TransactionRequest depositReq) {
-        Optional<Account> account = accountRepository.findByAccountNo(depositReq.getToAccountNo());
-        logger.error("Account: {}", depositReq.getToAccountNo());
+        return applyDeposit(depositReq, getLoggedInUser());
+    }
+
+    /**
+     * Body of {@link #depositAmount} for a caller that already runs the transaction on behalf of {@code username}.
+     */
+    Account applyDeposit(TransactionRequest depositReq, String username) {
+        Optional<Account> account = accountRepository.findWithOwnerByAccountNo(depositReq.getToAccountNo());
         if (account.isEmpty()) {
             logger.error("Account not found with: {}", depositReq.getToAccountNo());
             throw new ResourceNotFoundException("Account not found");
         }
-        if (!account.get().getCustomer().getUser().getUsername().equals(getLoggedInUser())) {
-            throw new IllegalArgumentException("Deposit not allowed: Cannot deposit funds into another customer's account");
-        }
-        if (depositReq.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be greater than zero");
-        }
+        checkDeposit(account.get(), Money.of(depositReq.getAmount(), account.get().getCurrency()), username);
 
         Account updatedAccount = account.get();
-        BigDecimal balance = updatedAccount.getBalance();
-        updatedAccount.setBalance(balance.add(depositReq.getAmount()));
-        accountRepository.save(updatedAccount);
+        BalanceSnapshot committed = credit(updatedAccount, depositReq.getAmount());
+        applySnapshot(updatedAccount, committed);
+        ledgerService.record(updatedAccount, depositReq.getAmount(), EntryDirection.CREDIT, null, Instant.now());
+        publishBalances(List.of(committed));
 
         return updatedAccount;
 
     }
 
+    @Measured("withdraw")
     @Transactional
     public Account withdrawAmount(TransactionRequest withdrawReq) {
-        Optional<Account> account = accountRepository.findByAccountNo(withdrawReq.getFromAccountNo());
+        return applyWithdrawal(withdrawReq, getLoggedInUser());
+    }
+
+    /**
+     * Body of {@link #withdrawAmount} for a caller that already runs the transaction on behalf of {@code username}.
+     */
+    Account applyWithdrawal(TransactionRequest withdrawReq, String username) {
+        Optional<Account> account = accountRepository.findWithOwnerByAccountNo(withdrawReq.getFromAccountNo());
         if (account.isEmpty()) {
             logger.error("Account not found with: {}", withdrawReq.getFromAccountNo());
             throw new ResourceNotFoundException("Account not found");
         }
-        if (!account.get().getCustomer().getUser().getUsername().equals(getLoggedInUser())) {
-            throw new InvalidTransactionException("Withdrawal denied: Unauthorized access to account");
-        }
-        if (account.get().getAccountType() == AccountType.SAVING) {
-            throw new InvalidTransactionException("Withdrawal denied: Not permitted from savings account");
-        }
         Account updatedAccount = account.get();
-        BigDecimal currentBalance = updatedAccount.getBalance();
+        checkWithdrawal(updatedAccount, Money.of(withdrawReq.getAmount(), updatedAccount.getCurrency()), username);
 
-        if (currentBalance.compareTo(withdrawReq.getAmount()) < 0) {
-            throw new InvalidTransactionException("Insufficient funds");
-        }
-        updatedAccount.setBalance(currentBalance.subtract(withdrawReq.getAmount()));
-        accountRepository.save(updatedAccount);
+        BalanceSnapshot committed = debit(updatedAccount, withdrawReq.getAmount(), "Insufficient funds");
+        applySnapshot(updatedAccount, committed);
+        ledgerService.record(updatedAccount, withdrawReq.getAmount(), EntryDirection.DEBIT, null, Instant.now());
+        publishBalances(List.of(committed));
 
         return updatedAccount;
 
     }
 
+    @Measured("transfer")
     @Transactional
     public BigDecimal transferAmount(TransactionRequest transferReq) {
+        return applyTransfer(transferReq, getLoggedInUser());
+    }
+
+    /**
+     * Body of {@link #transferAmount} for a caller that already runs the transaction on behalf of {@code username}.
+     */
+    BigDecimal applyTransfer(TransactionRequest transferReq, String username) {
+        TransferParties parties = checkedTransfer(transferReq, username);
+        Account fromAccount = parties.from();
+        Account toAccount = parties.to();
+
+        // Each UPDATE locks its row, so both rows are updated in account number order: concurrent A->B and
+        // B->A transfers queue on the same first lock instead of deadlocking on each other.
+        BalanceSnapshot debited;
+        BalanceSnapshot credited;
+        if (fromAccount.getAccountNo().compareTo(toAccount.getAccountNo()) <= 0) {
+            debited = debit(fromAccount, transferReq.getAmount(), "Insufficient balance in account");
+            credited = credit(toAccount, transferReq.getAmount());
+        } else {
+            credited = credit(toAccount, transferReq.getAmount());
+            debited = debit(fromAccount, transferReq.getAmount(), "Insufficient balance in account");
+        }
+
+        Instant now = Instant.now();
+        applySnapshot(fromAccount, debited);
+        ledgerService.record(fromAccount, transferReq.getAmount(), EntryDirection.DEBIT, toAccount.getAccountNo(), now);
+        applySnapshot(toAccount, credited);
+        ledgerService.record(toAccount, transferReq.getAmount(), EntryDirection.CREDIT, fromAccount.getAccountNo(), now);
+        publishBalances(List.of(debited, credited));
+
+        return transferReq.getAmount();
+
+    }
+
+    /**
+     * First half of a transfer split across two transactions: checks the transfer and debits the sender.
+     * The caller must make the pending credit durable in the same transaction.
+     */
+    void applyTransferDebit(TransactionRequest transferReq, String username) {
+        TransferParties parties = checkedTransfer(transferReq, username);
+        Account fromAccount = parties.from();
+
+        BalanceSnapshot debited = debit(fromAccount, transferReq.getAmount(), "Insufficient balance in account");
+        applySnapshot(fromAccount, debited);
+        ledgerService.record(fromAccount, transferReq.getAmount(), EntryDirection.DEBIT, parties.to().getAccountNo(), Instant.now());
+        publishBalances(List.of(debited));
+    }
+
+    /**
+     * Second half of a split transfer: credits the receiver of a debit that has already committed.
+     */
+    void applyTransferCredit(String fromAccountNo, String toAccountNo, BigDecimal amount) {
+        BalanceSnapshot credited = accountBalanceRepository.credit(toAccountNo, amount)
+                .orElseThrow(() -> new ResourceNotFoundException("Receiver's account not found"));
+        ledgerService.recordAll(List.of(new LedgerEntry(toAccountNo, amount, EntryDirection.CREDIT, fromAccountNo,
+                Instant.now(), credited.getBalance())));
+        publishBalances(List.of(credited));
+    }
+
+    /**
+     * Applies a coalesced batch of deposits into one account with a single UPDATE crediting their sum and one
+     * batched ledger insert. A deposit failing its checks gets its rejection and is left out; the others get
+     * a copy of the account carrying the running balance after their own deposit.
+     */
+    void applyDeposits(String accountNo, List<DepositCoalescer.Deposit> deposits) {
+        Optional<Account> found = accountRepository.findWithOwnerByAccountNo(accountNo);
+        if (found.isEmpty()) {
+            logger.error("Account not found with: {}", accountNo);
+            deposits.forEach(deposit -> deposit.rejection = new ResourceNotFoundException("Account not found"));
+            return;
+        }
+        Account account = found.get();
+        List<DepositCoalescer.Deposit> accepted = new ArrayList<>(deposits.size());
+        Money total = Money.ofMinor(0, account.getCurrency());
+        for (DepositCoalescer.Deposit deposit : deposits) {
+            try {
+                Money amount = Money.of(deposit.amount, account.getCurrency());
+                checkDeposit(account, amount, deposit.username);
+                accepted.add(deposit);
+                total = total.plus(amount);
+            } catch (IllegalArgumentException | InvalidTransactionException e) {
+                deposit.rejection = e;
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
 
-        Optional<Account> senderAccount = accountRepository.findByAccountNo(transferReq.getFromAccountNo());
-        if (senderAccount.isEmpty()) {
+        BalanceSnapshot committed = credit(account, total.toBigDecimal());
+        Instant now = Instant.now();
+        Money balance = Money.of(committed.getBalance(), account.getCurrency()).minus(total);
+        List<LedgerEntry> entries = new ArrayList<>(accepted.size());
+        for (DepositCoalescer.Deposit deposit : accepted) {
+            balance = balance.plus(Money.of(deposit.amount, account.getCurrency()));
+            BigDecimal runningBalance = balance.toBigDecimal();
+            entries.add(new LedgerEntry(accountNo, deposit.amount, EntryDirection.CREDIT, null, now, runningBalance));
+            deposit.account = depositedAccount(account, runningBalance, committed.getVersion());
+        }
+        ledgerService.recordAll(entries);
+        publishBalances(List.of(committed));
+    }
+
+    private static Account depositedAccount(Account account, BigDecimal balance, long version) {
+        Account deposited = new Account();
+        deposited.setAccountNo(account.getAccountNo());
+        deposited.setCustomer(account.getCustomer());
+        deposited.setAccountType(account.getAccountType());
+        deposited.setCurrency(account.getCurrency());
+        deposited.setBalance(balance);
+        deposited.setVersion(version);
+        return deposited;
+    }
+
+    private TransferParties checkedTransfer(TransactionRequest transferReq, String username) {
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllWithOwnerByAccountNoIn(
+                List.of(transferReq.getFromAccountNo(), transferReq.getToAccountNo()))) {
+            accounts.put(account.getAccountNo(), account);
+        }
+        Account fromAccount = accounts.get(transferReq.getFromAccountNo());
+        Account toAccount = accounts.get(transferReq.getToAccountNo());
+
+        if (fromAccount == null) {
             logger.error("Account not found with: {}", transferReq.getFromAccountNo());
             throw new ResourceNotFoundException("Sender's account not found");
         }
-        Optional<Account> receiverAccount = accountRepository.findByAccountNo(transferReq.getToAccountNo());
 
-        if (receiverAccount.isEmpty()) {
+        if (toAccount == null) {
             logger.error("Account not found with: {}", transferReq.getToAccountNo());
             throw new ResourceNotFoundException("Receiver's account not found");
         }
 
-        Account fromAccount = senderAccount.get();
-        Account toAccount = receiverAccount.get();
+        checkTransfer(fromAccount, toAccount, Money.of(transferReq.getAmount(), fromAccount.getCurrency()), username);
+        return new TransferParties(fromAccount, toAccount);
+    }
 
-        if (fromAccount.getAccountType() == AccountType.SAVING) {
-            throw new InvalidTransactionException("Transfer not allowed: Transfers from a savings account are not permitted");
+    @Measured("transaction_history")
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse getTransactionHistory(String accountNo, String cursor, int limit) {
+        Optional<String> owner = accountRepository.findOwnerUsernameByAccountNo(accountNo);
+        if (owner.isEmpty()) {
+            logger.error("Account not found with: {}", accountNo);
+            throw new ResourceNotFoundException("Account not found");
         }
+        if (!owner.get().equals(getLoggedInUser())) {
+            throw new InvalidTransactionException("Access denied: Cannot view another customer's transactions",
+                    RejectionReason.UNAUTHORIZED);
+        }
+        return ledgerService.getHistory(accountNo, cursor, limit);
+    }
 
-        boolean isSameCustomer = fromAccount.getCustomer().getId()
-                .equals(toAccount.getCustomer().getId());
-
-        if (isSameCustomer && transferReq.getAmount().compareTo(new BigDecimal("100000")) > 0) {
-            throw new InvalidTransactionException("Transfer limit exceeded: Transfers between your own accounts cannot exceed 100,000 EUR");
+    /**
+     * Applies a list of operations in one transaction. All involved accounts are locked with a single
+     * ordered IN query, the operations are checked against running in-memory balances and the net
+     * balance changes are written with one JDBC batch, followed by the ledger entries.
+     * In ALL_OR_NOTHING mode nothing is written if any operation is rejected.
+     */
+    @Measured("batch")
+    @Transactional
+    public BatchTransactionResponse applyBatch(BatchTransactionRequest batchReq) {
+        String username = getLoggedInUser();
+        List<BatchOperation> operations = batchReq.getOperations();
+
+        Set<String> accountNos = new TreeSet<>();
+        for (BatchOperation operation : operations) {
+            if (operation.getFromAccountNo() != null) {
+                accountNos.add(operation.getFromAccountNo());
+            }
+            if (operation.getToAccountNo() != null) {
+                accountNos.add(operation.getToAccountNo());
+            }
+        }
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllByAccountNoInForUpdate(accountNos)) {
+            accounts.put(account.getAccountNo(), account);
         }
 
-        if (!isSameCustomer && transferReq.getAmount().compareTo(new BigDecimal("15000")) > 0) {
-            throw new InvalidTransactionException("Transfer limit exceeded: Transfers to another customer's account cannot exceed 15,000 EUR");
+        Map<String, Money> balances = new HashMap<>();
+        accounts.forEach((accountNo, account) -> balances.put(accountNo, Money.of(account.getBalance(), account.getCurrency())));
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<BatchItemResult> results = new ArrayList<>(operations.size());
+        Instant now = Instant.now();
+        int rejected = 0;
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            try {
+                applyBatchOperation(operation, accounts, balances, entries, username, now);
+                results.add(new BatchItemResult(i, BatchItemStatus.APPLIED, null));
+            } catch (InvalidTransactionException | ResourceNotFoundException | IllegalArgumentException e) {
+                results.add(new BatchItemResult(i, BatchItemStatus.REJECTED, e.getMessage()));
+                rejected++;
+            }
         }
-        if (!fromAccount.getCustomer().getUser().getUsername().equals(getLoggedInUser())) {
-            throw new InvalidTransactionException("Unauthorized transfer: Cannot transfer funds from another customer's account");
+
+        if (rejected > 0 && batchReq.getMode() == BatchMode.ALL_OR_NOTHING) {
+            List<BatchItemResult> skipped = results.stream()
+                    .map(result -> result.getStatus() == BatchItemStatus.APPLIED
+                            ? new BatchItemResult(result.getIndex(), BatchItemStatus.SKIPPED, "Not applied: batch rejected")
+                            : result)
+                    .toList();
+            return new BatchTransactionResponse(batchReq.getMode(), 0, rejected, skipped);
         }
-        if (fromAccount.getBalance().compareTo(transferReq.getAmount()) < 0) {
-            throw new InvalidTransactionException("Insufficient balance in account");
+
+        List<Object[]> updates = new ArrayList<>();
+        List<BalanceSnapshot> snapshots = new ArrayList<>();
+        balances.forEach((accountNo, balance) -> {
+            Account account = accounts.get(accountNo);
+            if (balance.getMinorUnits() != Money.toMinorUnits(account.getBalance())) {
+                BigDecimal newBalance = balance.toBigDecimal();
+                updates.add(new Object[]{newBalance, accountNo});
+                snapshots.add(committedSnapshot(account, newBalance));
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE account SET balance = ?, version = version + 1 WHERE account_no = ?", updates);
+        ledgerService.recordAll(entries);
+        publishBalances(snapshots);
+
+        return new BatchTransactionResponse(batchReq.getMode(), operations.size() - rejected, rejected, results);
+    }
+
+    private void applyBatchOperation(BatchOperation operation, Map<String, Account> accounts, Map<String, Money> balances,
+                                     List<LedgerEntry> entries, String username, Instant now) {
+        BigDecimal amount = operation.getAmount();
+        switch (operation.getType()) {
+            case DEPOSIT -> {
+                Account toAccount = batchAccount(accounts, operation.getToAccountNo(), "Account");
+                Money credited = Money.of(amount, toAccount.getCurrency());
+                checkDeposit(toAccount, credited, username);
+                Money balance = balances.merge(toAccount.getAccountNo(), credited, Money::plus);
+                entries.add(new LedgerEntry(toAccount.getAccountNo(), amount, EntryDirection.CREDIT, null, now, balance.toBigDecimal()));
+            }
+            case WITHDRAW -> {
+                Account fromAccount = batchAccount(accounts, operation.getFromAccountNo(), "Account");
+                Money debited = Money.of(amount, fromAccount.getCurrency());
+                checkWithdrawal(fromAccount, debited, username);
+                checkFunds(balances.get(fromAccount.getAccountNo()), debited, "Insufficient funds");
+                Money balance = balances.merge(fromAccount.getAccountNo(), debited, Money::minus);
+                entries.add(new LedgerEntry(fromAccount.getAccountNo(), amount, EntryDirection.DEBIT, null, now, balance.toBigDecimal()));
+            }
+            case TRANSFER -> {
+                Account fromAccount = batchAccount(accounts, operation.getFromAccountNo(), "Sender's account");
+                Account toAccount = batchAccount(accounts, operation.getToAccountNo(), "Receiver's account");
+                Money debited = Money.of(amount, fromAccount.getCurrency());
+                Money credited = Money.of(amount, toAccount.getCurrency());
+                checkTransfer(fromAccount, toAccount, debited, username);
+                checkFunds(balances.get(fromAccount.getAccountNo()), debited, "Insufficient balance in account");
+                Money fromBalance = balances.merge(fromAccount.getAccountNo(), debited, Money::minus);
+                Money toBalance = balances.merge(toAccount.getAccountNo(), credited, Money::plus);
+                entries.add(new LedgerEntry(fromAccount.getAccountNo(), amount, EntryDirection.DEBIT, toAccount.getAccountNo(), now, fromBalance.toBigDecimal()));
+                entries.add(new LedgerEntry(toAccount.getAccountNo(), amount, EntryDirection.CREDIT, fromAccount.getAccountNo(), now, toBalance.toBigDecimal()));
+            }
         }
+    }
+
+    /**
+     * The account row is locked, so the version it commits with is exactly one above the version it was read at.
+     */
+    private static BalanceSnapshot committedSnapshot(Account account, BigDecimal balance) {
+        return new BalanceSnapshot(account.getAccountNo(), account.getAccountType(), balance,
+                account.getCurrency(), account.getVersion() + 1);
+    }
 
+    /**
+     * The affected row count decides the insufficient-funds path: the debit matches no row when the
+     * balance, checked under the row lock, is lower than the amount.
+     */
+    private BalanceSnapshot debit(Account account, BigDecimal amount, String insufficientFundsMessage) {
+        return accountBalanceRepository.debit(account.getAccountNo(), amount)
+                .orElseThrow(() -> new InvalidTransactionException(insufficientFundsMessage, RejectionReason.INSUFFICIENT_FUNDS));
+    }
 
-        fromAccount.setBalance(fromAccount.getBalance().subtract(transferReq.getAmount()));
+    private BalanceSnapshot credit(Account account, BigDecimal amount) {
+        return accountBalanceRepository.credit(account.getAccountNo(), amount)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+    }
 
-        toAccount.setBalance(toAccount.getBalance().add(transferReq.getAmount()));
+    /**
+     * Copies the committed state onto the read-only entity for the response and the ledger's running balance.
+     * Read-only entities are never dirty checked, so this does not cause another UPDATE.
+     */
+    private static void applySnapshot(Account account, BalanceSnapshot committed) {
+        account.setBalance(committed.getBalance());
+        account.setVersion(committed.getVersion());
+    }
 
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+    private void publishBalances(List<BalanceSnapshot> snapshots) {
+        eventPublisher.publishEvent(new AccountBalanceChangedEvent(snapshots));
+    }
 
-        return transferReq.getAmount();
+    private Account batchAccount(Map<String, Account> accounts, String accountNo, String name) {
+        if (isInvalidAccount(accountNo)) {
+            throw new InvalidTransactionException(name + " number is invalid");
+        }
+        Account account = accounts.get(accountNo);
+        if (account == null) {
+            throw new ResourceNotFoundException(name + " not found");
+        }
+        return account;
+    }
 
+    private void checkDeposit(Account toAccount, Money amount, String username) {
+        if (!toAccount.getCustomer().getUser().getUsername().equals(username)) {
+            throw new IllegalArgumentException("Deposit not allowed: Cannot deposit funds into another customer's account");
+        }
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+        ruleEngine.check(TransactionType.DEPOSIT, toAccount, null, amount);
     }
 
-    public void validate(TransactionRequest transactionRequest, String action) {
+    private void checkWithdrawal(Account fromAccount, Money amount, String username) {
+        if (!fromAccount.getCustomer().getUser().getUsername().equals(username)) {
+            throw new InvalidTransactionException("Withdrawal denied: Unauthorized access to account", RejectionReason.UNAUTHORIZED);
+        }
+        ruleEngine.check(TransactionType.WITHDRAW, fromAccount, null, amount);
+    }
 
-        if (action.equalsIgnoreCase("deposit") && isInvalidAccount(transactionRequest.getToAccountNo())) {
-            throw new InvalidTransactionException("Account number for deposit is invalid");
+    /**
+     * The rules run before the ownership check, so a transfer breaking a rule is reported as such whoever sends it.
+     */
+    private void checkTransfer(Account fromAccount, Account toAccount, Money amount, String username) {
+        ruleEngine.check(TransactionType.TRANSFER, fromAccount, toAccount, amount);
+        if (!fromAccount.getCustomer().getUser().getUsername().equals(username)) {
+            throw new InvalidTransactionException("Unauthorized transfer: Cannot transfer funds from another customer's account",
+                    RejectionReason.UNAUTHORIZED);
         }
-        if (action.equalsIgnoreCase("withdraw") && isInvalidAccount(transactionRequest.getFromAccountNo())) {
-            throw new InvalidTransactionException("Account number for withdrawal is invalid");
+    }
+
+    private static void checkFunds(Money available, Money amount, String message) {
+        if (available.isLessThan(amount)) {
+            throw new InvalidTransactionException(message, RejectionReason.INSUFFICIENT_FUNDS);
         }
-        if (action.equalsIgnoreCase("transfer") && (isInvalidAccount(transactionRequest.getToAccountNo()) || isInvalidAccount(transactionRequest.getFromAccountNo()))) {
-            throw new InvalidTransactionException("Account number for transfer is invalid");
+    }
+
+    public void validate(TransactionRequest transactionRequest, TransactionType type) {
+        switch (type) {
+            case DEPOSIT -> {
+                if (isInvalidAccount(transactionRequest.getToAccountNo())) {
+                    throw new InvalidTransactionException("Account number for deposit is invalid");
+                }
+            }
+            case WITHDRAW -> {
+                if (isInvalidAccount(transactionRequest.getFromAccountNo())) {
+                    throw new InvalidTransactionException("Account number for withdrawal is invalid");
+                }
+            }
+            case TRANSFER -> {
+                if (isInvalidAccount(transactionRequest.getToAccountNo()) || isInvalidAccount(transactionRequest.getFromAccountNo())) {
+                    throw new InvalidTransactionException("Account number for transfer is invalid");
+                }
+            }
         }
     }
 
     private boolean isInvalidAccount(String accountNo) {
         return accountNo == null || accountNo.isEmpty();
     }
+
+    private record TransferParties(Account from, Account to) {
+    }
 }
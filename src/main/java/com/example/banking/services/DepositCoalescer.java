@@ -0,0 +1,278 @@
+package com.example.banking.services;
+
+import com.example.banking.exception.ServiceBusyException;
+import com.example.banking.models.Account;
+import com.example.banking.payload.request.TransactionRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional group commit for deposits ({@code banking.deposit-coalescing.enabled}). The first deposit into an
+ * account opens a batch that collects further deposits into the same account for
+ * {@code banking.deposit-coalescing.window}, or until {@code max-batch-size} deposits have joined. The batch
+ * is then applied in one transaction: a single UPDATE crediting the sum and one batched insert of a ledger
+ * entry per deposit. Each caller is answered after the commit with the balance as it stood after its own
+ * deposit. A deposit failing its checks is left out of the batch and rejected on its own.
+ */
+@Service
+public class DepositCoalescer implements SmartLifecycle {
+
+    public static final String BATCH_SIZE_SUMMARY = "banking.deposit.batch.size";
+
+    public static final String BATCH_WAIT_TIMER = "banking.deposit.batch.wait";
+
+    private static final Logger logger = LoggerFactory.getLogger(DepositCoalescer.class);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.deposit-coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${banking.deposit-coalescing.window:2ms}")
+    private Duration window;
+
+    @Value("${banking.deposit-coalescing.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${banking.deposit-coalescing.threads:4}")
+    private int threads;
+
+    private final Map<String, Batch> open = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private ScheduledExecutorService flusher;
+
+    private DistributionSummary batchSize;
+
+    private Timer batchWait;
+
+    /**
+     * Whether deposits of the current call should be coalesced; never inside a caller's transaction.
+     */
+    public boolean accepts() {
+        return running && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * Adds the deposit to the account's open batch; the result completes once the batch has committed.
+     *
+     * @throws ServiceBusyException once the coalescer has been stopped
+     */
+    public CompletableFuture<Account> submit(TransactionRequest depositReq, String username) {
+        if (!running) {
+            throw new ServiceBusyException("Service is shutting down");
+        }
+        Deposit deposit = new Deposit(depositReq.getAmount(), username);
+        String accountNo = depositReq.getToAccountNo();
+        while (true) {
+            Batch batch;
+            try {
+                batch = open.computeIfAbsent(accountNo, this::openBatch);
+            } catch (RejectedExecutionException e) {
+                // Stopped since the check above, so the flusher takes no new window.
+                throw new ServiceBusyException("Service is shutting down");
+            }
+            if (batch.add(deposit)) {
+                return deposit.result;
+            }
+            // Closed while we were joining it; the next deposit opens a new batch.
+            open.remove(accountNo, batch);
+        }
+    }
+
+    private Batch openBatch(String accountNo) {
+        Batch batch = new Batch(accountNo);
+        flusher.schedule(() -> {
+            if (batch.close()) {
+                dispatch(batch);
+            }
+        }, window.toNanos(), TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void dispatch(Batch batch) {
+        open.remove(batch.accountNo, batch);
+        try {
+            flusher.execute(() -> apply(batch));
+        } catch (RejectedExecutionException e) {
+            // Filled or timed out after stop() shut the flusher down; its callers would otherwise never be answered.
+            for (Deposit deposit : batch.deposits) {
+                deposit.result.completeExceptionally(new ServiceBusyException("Service is shutting down"));
+            }
+        }
+    }
+
+    private void apply(Batch batch) {
+        long started = System.nanoTime();
+        List<Deposit> deposits = batch.deposits;
+        batchSize.record(deposits.size());
+        for (Deposit deposit : deposits) {
+            batchWait.record(started - deposit.enqueuedNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> customerService.applyDeposits(batch.accountNo, deposits));
+        } catch (RuntimeException e) {
+            logger.error("Deposit batch of {} into {} rolled back", deposits.size(), batch.accountNo, e);
+            for (Deposit deposit : deposits) {
+                deposit.result.completeExceptionally(deposit.rejection != null ? deposit.rejection : e);
+            }
+            return;
+        }
+        for (Deposit deposit : deposits) {
+            if (deposit.rejection != null) {
+                deposit.result.completeExceptionally(deposit.rejection);
+            } else {
+                deposit.result.complete(deposit.account);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        batchSize = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Deposits applied by one coalesced UPDATE")
+                .register(meterRegistry);
+        batchWait = Timer.builder(BATCH_WAIT_TIMER)
+                .description("Time a deposit waited for its batch to be applied")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flusher = Executors.newScheduledThreadPool(threads, runnable -> new Thread(runnable, "deposit-coalescer"));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Batch batch : open.values()) {
+            if (batch.close()) {
+                dispatch(batch);
+            }
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's phase, so the last requests' batches are still applied during shutdown.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * One caller's deposit; {@link CustomerService#applyDeposits} fills in the resulting account or the rejection.
+     */
+    static final class Deposit {
+
+        final BigDecimal amount;
+
+        final String username;
+
+        final long enqueuedNanos = System.nanoTime();
+
+        final CompletableFuture<Account> result = new CompletableFuture<>();
+
+        Account account;
+
+        RuntimeException rejection;
+
+        Deposit(BigDecimal amount, String username) {
+            this.amount = amount;
+            this.username = username;
+        }
+    }
+
+    private final class Batch {
+
+        private final String accountNo;
+
+        private final List<Deposit> deposits = new ArrayList<>();
+
+        // A lock rather than a monitor, so a virtual thread joining a batch never pins its carrier.
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private boolean closed;
+
+        private Batch(String accountNo) {
+            this.accountNo = accountNo;
+        }
+
+        private boolean add(Deposit deposit) {
+            boolean full;
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                deposits.add(deposit);
+                full = deposits.size() >= maxBatchSize;
+                closed = full;
+            } finally {
+                lock.unlock();
+            }
+            if (full) {
+                dispatch(this);
+            }
+            return true;
+        }
+
+        private boolean close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
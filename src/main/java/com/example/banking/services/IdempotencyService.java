@@ -0,0 +1,200 @@
+package com.example.banking.services;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.exception.IdempotencyConflictException;
+import com.example.banking.exception.IdempotencyKeyReuseException;
+import com.example.banking.models.IdempotencyRecord;
+import com.example.banking.models.TransactionType;
+import com.example.banking.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a money-moving request at most once per Idempotency-Key and user.
+ * <p>
+ * Completed responses are kept in the bounded {@code idempotency} cache and in the idempotency_record table,
+ * which is written in the same transaction as the balance change. Retries are answered from either store
+ * without touching any account. A retry that arrives while the first request is still running waits for it
+ * instead of racing it; if the first request fails, one of the waiting retries executes the request itself.
+ * <p>
+ * A hash of the operation and request body is stored with the response. A key reused for a different
+ * operation or body is rejected with {@link IdempotencyKeyReuseException} instead of replaying a response
+ * that does not belong to it.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${banking.idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseEntity<?> execute(String idempotencyKey, TransactionType operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = customerService.getLoggedInUser() + ":" + idempotencyKey;
+        String requestHash = fingerprint(operation, request);
+        Cache completed = cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE);
+
+        while (true) {
+            StoredResponse stored = completed.get(key, StoredResponse.class);
+            if (stored != null) {
+                return stored.replay(requestHash);
+            }
+
+            CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+            if (running != null) {
+                Optional<StoredResponse> result = await(running);
+                if (result.isPresent()) {
+                    return result.get().replay(requestHash);
+                }
+                // The first execution failed; try again, possibly as the executing request.
+                continue;
+            }
+
+            try {
+                Execution outcome = executeOnce(key, requestHash, action);
+                completed.put(key, outcome.stored());
+                execution.complete(outcome.stored());
+                return outcome.response();
+            } catch (RuntimeException e) {
+                execution.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, execution);
+            }
+        }
+    }
+
+    private Execution executeOnce(String key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        Optional<IdempotencyRecord> persisted = idempotencyRecordRepository.findById(key);
+        if (persisted.isPresent()) {
+            StoredResponse stored = StoredResponse.of(persisted.get());
+            return new Execution(stored.replay(requestHash), stored);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                ResponseEntity<?> response = action.get();
+                IdempotencyRecord record = new IdempotencyRecord(key, requestHash, response.getStatusCode().value(),
+                        toJson(response.getBody()), Instant.now());
+                // Flushed here so that a concurrent insert of the same key on another node rolls this transaction back.
+                idempotencyRecordRepository.saveAndFlush(record);
+                return new Execution(response, StoredResponse.of(record));
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Idempotency-Key executed concurrently elsewhere, replaying stored response");
+            StoredResponse stored = idempotencyRecordRepository.findById(key)
+                    .map(StoredResponse::of)
+                    .orElseThrow(() -> e);
+            return new Execution(stored.replay(requestHash), stored);
+        }
+    }
+
+    private String fingerprint(TransactionType operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request for idempotent replay", e);
+        }
+    }
+
+    private Optional<StoredResponse> await(CompletableFuture<StoredResponse> running) {
+        try {
+            return Optional.of(running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a request with the same Idempotency-Key");
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response for idempotent replay", e);
+        }
+    }
+
+    private record Execution(ResponseEntity<?> response, StoredResponse stored) {
+    }
+
+    private record StoredResponse(String requestHash, int statusCode, String body) {
+
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getResponseBody());
+        }
+
+        ResponseEntity<String> replay(String requestHash) {
+            if (!this.requestHash.equals(requestHash)) {
+                throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different request");
+            }
+            return ResponseEntity.status(statusCode)
+                    .header(REPLAYED_HEADER, "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+    }
+}
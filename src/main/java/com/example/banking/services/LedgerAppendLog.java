@@ -0,0 +1,503 @@
+package com.example.banking.services;
+
+import com.example.banking.models.EntryDirection;
+import com.example.banking.models.LedgerEntry;
+import com.example.banking.repository.LedgerEntryRepository;
+import com.example.banking.repository.LedgerLogOffsetRepository;
+import com.example.banking.repository.LedgerLogOffsetRepository.Offset;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind for ledger entries ({@code banking.ledger-log.enabled}). Once the transaction that
+ * changed a balance has committed, its ledger entries are appended to a memory-mapped log in
+ * {@code banking.ledger-log.directory} instead of being inserted on the request path. A loader thread
+ * inserts them into {@code ledger_entry} in JDBC batches of up to {@code banking.ledger-log.batch-size}
+ * and advances the log's row in {@code ledger_log_offset} in the same transaction, so every entry is
+ * loaded exactly once, also when loading resumes after a restart or a crash. The row is named by an id
+ * created in the log directory with the log, so nodes sharing the database each track their own log.
+ * <p>
+ * The log is a sequence of fixed-size segment files. A record is its length followed by its bytes; the
+ * length is written last, so a record becomes visible only once it is complete. A length of -1 seals a
+ * segment and the writer continues in the next one. Segments are deleted once they have been loaded.
+ * Written pages survive a crash of the process; {@code banking.ledger-log.force} also flushes them to disk
+ * after every commit so they survive a crash of the machine.
+ * <p>
+ * Until its entries are loaded, a balance change is not yet visible in the transaction history. The
+ * number of entries waiting is published as {@value #LAG_GAUGE}.
+ * <p>
+ * Entries the log cannot take (the disk is full, a segment cannot be mapped) are inserted directly in a
+ * transaction of their own instead. Entries are only lost if that insert fails as well, in which case they
+ * are logged in full, or if the process dies between the balance commit and the append.
+ */
+@Service
+public class LedgerAppendLog implements SmartLifecycle {
+
+    public static final String LAG_GAUGE = "banking.ledger.log.lag";
+
+    // Names this log's row in ledger_log_offset; created with the log, so it moves with the directory.
+    private static final String ID_FILE = "ledger.id";
+
+    private static final int END_OF_SEGMENT = -1;
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("ledger-(\\d+)\\.log");
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerAppendLog.class);
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private LedgerLogOffsetRepository offsetRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.ledger-log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${banking.ledger-log.directory:${java.io.tmpdir}/banking-ledger-log}")
+    private String directory;
+
+    @Value("${banking.ledger-log.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${banking.ledger-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.ledger-log.poll-interval:20ms}")
+    private Duration pollInterval;
+
+    @Value("${banking.ledger-log.force:false}")
+    private boolean force;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Path logDirectory;
+
+    private String logName;
+
+    // Not a monitor, so virtual request threads waiting for it unmount instead of pinning their carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Writer side, guarded by lock.
+    private long writeSegment;
+
+    private MappedByteBuffer writeBuffer;
+
+    // Loader side, only touched by the loader thread once it runs.
+    private long readSegment;
+
+    private int readPosition;
+
+    private MappedByteBuffer readBuffer;
+
+    private Thread loader;
+
+    // The balance transaction has committed when entries are appended, so a fallback insert needs its own.
+    private TransactionTemplate fallbackTemplate;
+
+    /**
+     * Appends {@code entries} once the current transaction commits; nothing is appended if it rolls back.
+     */
+    public void appendAfterCommit(List<LedgerEntry> entries) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(entries);
+            }
+        });
+    }
+
+    private void append(List<LedgerEntry> entries) {
+        List<byte[]> records = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            records.add(encode(entry));
+        }
+        int written = 0;
+        List<MappedByteBuffer> toForce = new ArrayList<>(2);
+        try {
+            lock.lock();
+            try {
+                for (byte[] record : records) {
+                    MappedByteBuffer sealed = write(record);
+                    if (sealed != null) {
+                        toForce.add(sealed);
+                    }
+                    written++;
+                }
+                toForce.add(writeBuffer);
+            } finally {
+                lock.unlock();
+            }
+            // Outside the lock, so other commits append while this one waits for the disk.
+            if (force) {
+                for (MappedByteBuffer buffer : toForce) {
+                    buffer.force();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Records written before the failure are in the log and will be loaded; only the rest is inserted here.
+            logger.warn("Could not append {} ledger entries of a committed balance change to {}, inserting them directly",
+                    entries.size() - written, logDirectory, e);
+            if (written < entries.size()) {
+                insert(entries.subList(written, entries.size()));
+            }
+        } finally {
+            pending.addAndGet(written);
+        }
+    }
+
+    private void insert(List<LedgerEntry> entries) {
+        try {
+            fallbackTemplate.executeWithoutResult(status -> ledgerEntryRepository.saveAll(entries));
+        } catch (RuntimeException e) {
+            // The balance change has committed already; all that is left is to keep the entries recoverable.
+            for (LedgerEntry entry : entries) {
+                logger.error("Lost ledger entry of a committed balance change: account {} {} {} counterparty {} at {} running balance {}",
+                        entry.getAccountNo(), entry.getDirection(), entry.getAmount().toPlainString(),
+                        entry.getCounterpartyAccountNo(), entry.getCreatedAt(), entry.getRunningBalance().toPlainString());
+            }
+            logger.error("Could not insert {} ledger entries directly", entries.size(), e);
+        }
+    }
+
+    /**
+     * Returns the segment the record sealed to move on to the next one, or {@code null}.
+     */
+    private MappedByteBuffer write(byte[] record) throws IOException {
+        int needed = Integer.BYTES + record.length;
+        // Room for the record and for the end-of-segment marker after it.
+        if (needed + Integer.BYTES > writeBuffer.capacity()) {
+            throw new IOException("Ledger record of " + record.length + " bytes does not fit a segment");
+        }
+        int position = writeBuffer.position();
+        MappedByteBuffer sealed = null;
+        if (position + needed + Integer.BYTES > writeBuffer.capacity()) {
+            // Mapped before sealing, so a segment that cannot be created leaves the current one open.
+            MappedByteBuffer next = map(writeSegment + 1);
+            writeBuffer.putInt(position, END_OF_SEGMENT);
+            sealed = writeBuffer;
+            writeSegment++;
+            writeBuffer = next;
+            position = 0;
+        }
+        writeBuffer.put(position + Integer.BYTES, record);
+        writeBuffer.putInt(position, record.length);
+        writeBuffer.position(position + needed);
+        return sealed;
+    }
+
+    private void load() {
+        while (running) {
+            int loaded;
+            try {
+                loaded = loadBatch();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Loading the ledger log at segment {} position {} failed, retrying", readSegment, readPosition, e);
+                loaded = 0;
+            }
+            if (loaded == 0) {
+                LockSupport.parkNanos(pollInterval.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Loads the next batch of records, returning how many records (or end-of-segment markers) it consumed.
+     */
+    private int loadBatch() throws IOException {
+        if (readBuffer == null) {
+            readBuffer = map(readSegment);
+        }
+        List<byte[]> records = new ArrayList<>();
+        int position = readPosition;
+        boolean sealed = false;
+        lock.lock();
+        try {
+            while (records.size() < batchSize) {
+                int length = readBuffer.getInt(position);
+                if (length == END_OF_SEGMENT) {
+                    sealed = true;
+                    break;
+                }
+                if (length == 0) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                readBuffer.get(position + Integer.BYTES, record);
+                records.add(record);
+                position += Integer.BYTES + length;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (records.isEmpty() && !sealed) {
+            return 0;
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            entries.add(decode(record));
+        }
+        Offset next = sealed ? new Offset(readSegment + 1, 0) : new Offset(readSegment, position);
+        transactionTemplate.executeWithoutResult(status -> {
+            ledgerEntryRepository.saveAll(entries);
+            offsetRepository.advance(logName, next);
+        });
+        pending.addAndGet(-entries.size());
+        // Moved along with the committed offset before anything else can fail, or the batch would be loaded again.
+        long loadedSegment = readSegment;
+        readSegment = next.segment();
+        readPosition = next.position();
+
+        if (sealed) {
+            // Mapped by the next batch, which retries if the mapping fails.
+            readBuffer = null;
+            deleteSegment(loadedSegment);
+        }
+        return entries.size() + (sealed ? 1 : 0);
+    }
+
+    /**
+     * Best effort: a loaded segment left behind is deleted on the next start.
+     */
+    private void deleteSegment(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException e) {
+            logger.warn("Could not delete loaded ledger log segment {}", segmentPath(segment), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        fallbackTemplate = new TransactionTemplate(transactionManager);
+        fallbackTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            logDirectory = Files.createDirectories(Path.of(directory));
+            logName = logName();
+            long firstSegment = Math.max(firstSegment(), 0);
+            Offset loaded = transactionTemplate.execute(status -> offsetRepository.find(logName)
+                    .orElseGet(() -> offsetRepository.create(logName, firstSegment)));
+            readSegment = loaded.segment();
+            readPosition = loaded.position();
+            deleteSegmentsBefore(readSegment);
+
+            writeSegment = Math.max(lastSegment(), readSegment);
+            writeBuffer = map(writeSegment);
+            Scan tail = scan(writeBuffer, writeSegment == readSegment ? readPosition : 0);
+            writeBuffer.position(tail.end());
+            if (tail.sealed()) {
+                writeSegment++;
+                writeBuffer = map(writeSegment);
+            }
+            readBuffer = map(readSegment);
+            pending.set(countPending());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the ledger log in " + directory, e);
+        }
+        if (pending.get() > 0) {
+            logger.info("Resuming {} ledger entries from the log at segment {} position {}", pending.get(), readSegment, readPosition);
+        }
+        Gauge.builder(LAG_GAUGE, pending, AtomicLong::get)
+                .description("Ledger entries appended to the log but not yet loaded into the database")
+                .register(meterRegistry);
+        running = true;
+        loader = new Thread(this::load, "ledger-log-loader");
+        loader.start();
+    }
+
+    /**
+     * The name this log's offset is stored under. Each node has a log directory of its own, so nodes sharing a
+     * database each keep their own offset; a fixed name would have them overwrite each other's.
+     */
+    private String logName() throws IOException {
+        Path idFile = logDirectory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            return Files.readString(idFile).trim();
+        }
+        String name = "ledger-" + UUID.randomUUID();
+        Path staged = Files.createTempFile(logDirectory, "ledger", ".id.tmp");
+        Files.writeString(staged, name);
+        Files.move(staged, idFile, StandardCopyOption.ATOMIC_MOVE);
+        return name;
+    }
+
+    private long countPending() throws IOException {
+        long records = 0;
+        for (long segment = readSegment; segment <= writeSegment; segment++) {
+            MappedByteBuffer buffer = segment == readSegment ? readBuffer : map(segment);
+            records += scan(buffer, segment == readSegment ? readPosition : 0).records();
+        }
+        return records;
+    }
+
+    private static Scan scan(MappedByteBuffer buffer, int from) {
+        int position = from;
+        int records = 0;
+        while (true) {
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                return new Scan(records, position, true);
+            }
+            if (length == 0) {
+                return new Scan(records, position, false);
+            }
+            position += Integer.BYTES + length;
+            records++;
+        }
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A segment written with a larger configured size keeps its size.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize.toBytes()));
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return logDirectory.resolve(String.format("ledger-%020d.log", segment));
+    }
+
+    private long firstSegment() throws IOException {
+        return segments().min().orElse(-1);
+    }
+
+    private long lastSegment() throws IOException {
+        return segments().max().orElse(-1);
+    }
+
+    private void deleteSegmentsBefore(long segment) throws IOException {
+        for (long loaded : segments().filter(number -> number < segment).toArray()) {
+            Files.delete(segmentPath(loaded));
+        }
+    }
+
+    private LongStream segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        return numbers.stream().mapToLong(Long::longValue);
+    }
+
+    private static byte[] encode(LedgerEntry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(entry.getAccountNo());
+            out.writeUTF(entry.getAmount().toPlainString());
+            out.writeUTF(entry.getDirection().name());
+            out.writeBoolean(entry.getCounterpartyAccountNo() != null);
+            if (entry.getCounterpartyAccountNo() != null) {
+                out.writeUTF(entry.getCounterpartyAccountNo());
+            }
+            out.writeLong(entry.getCreatedAt().getEpochSecond());
+            out.writeInt(entry.getCreatedAt().getNano());
+            out.writeUTF(entry.getRunningBalance().toPlainString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LedgerEntry decode(byte[] record) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String accountNo = in.readUTF();
+            BigDecimal amount = new BigDecimal(in.readUTF());
+            EntryDirection direction = EntryDirection.valueOf(in.readUTF());
+            String counterpartyAccountNo = in.readBoolean() ? in.readUTF() : null;
+            Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            BigDecimal runningBalance = new BigDecimal(in.readUTF());
+            return new LedgerEntry(accountNo, amount, direction, counterpartyAccountNo, createdAt, runningBalance);
+        }
+    }
+
+    /**
+     * Entries still in the log are not loaded here but on the next start, the same way as after a crash.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(loader);
+        try {
+            loader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the account executors' phase, so entries of their last operations are still appended to the log.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private record Scan(int records, int end, boolean sealed) {
+    }
+}
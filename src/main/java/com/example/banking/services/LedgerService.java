@@ -0,0 +1,101 @@
+package com.example.banking.services;
+
+import com.example.banking.models.Account;
+import com.example.banking.models.EntryDirection;
+import com.example.banking.models.LedgerEntry;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+public class LedgerService {
+
+    // A string so that it can serve as the request parameter's defaultValue.
+    public static final String DEFAULT_PAGE_SIZE = "50";
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private LedgerAppendLog appendLog;
+
+    /**
+     * Appends an entry for a balance change that has already been applied to {@code account}.
+     * Must run inside the transaction that changes the balance, so both commit or roll back together.
+     * With the {@link LedgerAppendLog} running, the entry goes to the log once that transaction has
+     * committed and is inserted in the background.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LedgerEntry record(Account account, BigDecimal amount, EntryDirection direction,
+                              String counterpartyAccountNo, Instant createdAt) {
+        LedgerEntry entry = new LedgerEntry(account.getAccountNo(), amount, direction,
+                counterpartyAccountNo, createdAt, account.getBalance());
+        if (appendLog.isRunning()) {
+            appendLog.appendAfterCommit(List.of(entry));
+            return entry;
+        }
+        return ledgerEntryRepository.save(entry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<LedgerEntry> entries) {
+        if (appendLog.isRunning()) {
+            appendLog.appendAfterCommit(entries);
+            return;
+        }
+        ledgerEntryRepository.saveAll(entries);
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse getHistory(String accountNo, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // One extra row tells us whether an older page exists without a COUNT query.
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<LedgerEntry> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = ledgerEntryRepository.findLatest(accountNo, fetch);
+        } else {
+            Position position = decodeCursor(cursor);
+            entries = ledgerEntryRepository.findBefore(accountNo, position.createdAt(), position.id(), fetch);
+        }
+
+        if (entries.size() <= pageSize) {
+            return new TransactionHistoryResponse(entries, null);
+        }
+        List<LedgerEntry> page = entries.subList(0, pageSize);
+        return new TransactionHistoryResponse(page, encodeCursor(page.get(pageSize - 1)));
+    }
+
+    private static String encodeCursor(LedgerEntry last) {
+        String position = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new Position(Instant.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid transaction history cursor");
+        }
+    }
+
+    private record Position(Instant createdAt, Long id) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.banking.services;
+
+import com.example.banking.events.AccountBalanceChangedEvent;
+import com.example.banking.models.OutboxEvent;
+import com.example.banking.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional transactional outbox for balance changes ({@code banking.outbox.enabled}). Every committed
+ * balance change is written to {@code outbox_event} by the transaction that makes it, so an event exists
+ * exactly when the change does. Relay threads ({@code banking.outbox.relay-threads}) then claim batches of
+ * up to {@code banking.outbox.batch-size} events, hand them to the {@link OutboxSink} and delete them, all
+ * in one transaction. Delivery is at least once: a batch whose sink call succeeded but whose delete did
+ * not commit is delivered again.
+ */
+@Service
+public class OutboxRelay implements SmartLifecycle {
+
+    public static final String RELAYED_COUNTER = "banking.outbox.relayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired(required = false)
+    private OutboxSink sink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${banking.outbox.relay-threads:1}")
+    private int relayThreads;
+
+    @Value("${banking.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${banking.outbox.poll-interval:100ms}")
+    private Duration pollInterval;
+
+    private volatile boolean running;
+
+    private final List<Thread> relays = new ArrayList<>();
+
+    private Counter relayed;
+
+    /**
+     * Runs just before the balance change commits, on the same connection, so the events commit or roll back with it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBalanceChanged(AccountBalanceChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        outboxRepository.insertAll(event.getSnapshots().stream()
+                .map(snapshot -> OutboxEvent.balanceChanged(snapshot, now))
+                .toList());
+    }
+
+    private void relay() {
+        while (running) {
+            int published;
+            try {
+                published = relayBatch();
+            } catch (RuntimeException e) {
+                logger.error("Relaying outbox events failed, retrying", e);
+                published = 0;
+            }
+            if (published == 0) {
+                LockSupport.parkNanos(pollInterval.toNanos());
+            }
+        }
+    }
+
+    private int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxRepository.claim(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            sink.publish(events);
+            outboxRepository.deleteAll(events);
+            return events.size();
+        });
+        relayed.increment(published);
+        return published;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        relayed = Counter.builder(RELAYED_COUNTER)
+                .description("Outbox events handed to the sink")
+                .register(meterRegistry);
+        running = true;
+        for (int i = 0; i < relayThreads; i++) {
+            Thread relay = new Thread(this::relay, "outbox-relay-" + i);
+            relays.add(relay);
+            relay.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread relay : relays) {
+            LockSupport.unpark(relay);
+            try {
+                relay.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        relays.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
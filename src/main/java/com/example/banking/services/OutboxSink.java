@@ -0,0 +1,14 @@
+package com.example.banking.services;
+
+import com.example.banking.models.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events, such as a message broker. {@link #publish} runs inside the relay's
+ * transaction: when it throws, the batch stays in the outbox and is offered again.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,467 @@
+package com.example.banking.services;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.ResourceNotFoundException;
+import com.example.banking.exception.ServiceBusyException;
+import com.example.banking.metrics.BankingMetrics;
+import com.example.banking.models.Account;
+import com.example.banking.models.TransferHandoff;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.repository.AccountBalanceRepository;
+import com.example.banking.repository.TransferHandoffRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for deposits, withdrawals and transfers, with an optional single-writer execution mode
+ * ({@code banking.partitioned.enabled}). In that mode account numbers are hashed onto a fixed set of
+ * partitions, each drained by one thread, so operations on an account are applied one at a time in arrival
+ * order instead of queueing on the account's row lock. A partition applies everything that has queued up,
+ * up to {@code banking.partitioned.max-batch-size} operations, in one transaction (group commit). Each
+ * operation runs under its own savepoint, so an operation that is rejected or fails in the database rolls back
+ * whatever it already wrote (a transfer credits before it debits when the receiver's account number sorts
+ * first) and fails on its own without rolling back the rest of its batch. A batch locks all the accounts it
+ * writes to up front, in account number order like every other multi-account write, so it cannot deadlock with
+ * idempotent or batch requests, which take the transactional path.
+ * <p>
+ * A transfer between accounts on different partitions is handed off in two phases. The sender's partition
+ * debits the sender and stores a {@link TransferHandoff} in the same transaction. The receiver's partition
+ * then claims the hand-off and credits the receiver. Once the debit has committed the transfer succeeds: a
+ * failed credit is retried, starting after {@code banking.partitioned.handoff-retry-delay} and backing off, and
+ * hand-offs left over from a shutdown are resumed on start. Between the two phases the amount has left the
+ * sender but not yet reached the receiver.
+ * <p>
+ * With the mode disabled, deposits go through the {@link DepositCoalescer} when deposit coalescing is enabled.
+ * Otherwise, and for calls that already run in a transaction (idempotent requests commit their stored response
+ * together with the balance change), the transactional {@link CustomerService} methods are used.
+ */
+@Service
+public class PartitionedAccountExecutor implements SmartLifecycle {
+
+    public static final String BATCH_SIZE_SUMMARY = "banking.partition.batch.size";
+
+    public static final String QUEUED_GAUGE = "banking.partition.queued";
+
+    private static final Duration MAX_HANDOFF_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedAccountExecutor.class);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private DepositCoalescer depositCoalescer;
+
+    @Autowired
+    private TransferHandoffRepository handoffRepository;
+
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BankingMetrics metrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${banking.partitioned.enabled:false}")
+    private boolean enabled;
+
+    @Value("${banking.partitioned.partitions:8}")
+    private int partitionCount;
+
+    @Value("${banking.partitioned.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${banking.partitioned.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${banking.partitioned.handoff-retry-delay:100ms}")
+    private Duration handoffRetryDelay;
+
+    private volatile boolean running;
+
+    private Partition[] partitions;
+
+    private DistributionSummary batchSize;
+
+    public Account deposit(TransactionRequest depositReq) {
+        if (!partitioned()) {
+            if (depositCoalescer.accepts()) {
+                String username = customerService.getLoggedInUser();
+                return measured("deposit", () -> await(depositCoalescer.submit(depositReq, username)));
+            }
+            return customerService.depositAmount(depositReq);
+        }
+        String username = customerService.getLoggedInUser();
+        return measured("deposit", () -> await(partitionOf(depositReq.getToAccountNo()).submit(
+                List.of(depositReq.getToAccountNo()), () -> detached(customerService.applyDeposit(depositReq, username)))));
+    }
+
+    public Account withdraw(TransactionRequest withdrawReq) {
+        if (!partitioned()) {
+            return customerService.withdrawAmount(withdrawReq);
+        }
+        String username = customerService.getLoggedInUser();
+        return measured("withdraw", () -> await(partitionOf(withdrawReq.getFromAccountNo()).submit(
+                List.of(withdrawReq.getFromAccountNo()), () -> detached(customerService.applyWithdrawal(withdrawReq, username)))));
+    }
+
+    public BigDecimal transfer(TransactionRequest transferReq) {
+        if (!partitioned()) {
+            return customerService.transferAmount(transferReq);
+        }
+        String username = customerService.getLoggedInUser();
+        Partition sender = partitionOf(transferReq.getFromAccountNo());
+        Partition receiver = partitionOf(transferReq.getToAccountNo());
+        return measured("transfer", () -> {
+            if (sender == receiver) {
+                return await(sender.submit(List.of(transferReq.getFromAccountNo(), transferReq.getToAccountNo()),
+                        () -> customerService.applyTransfer(transferReq, username)));
+            }
+            TransferHandoff handoff = await(sender.submit(List.of(transferReq.getFromAccountNo()), () -> {
+                customerService.applyTransferDebit(transferReq, username);
+                return handoffRepository.save(new TransferHandoff(transferReq.getFromAccountNo(),
+                        transferReq.getToAccountNo(), transferReq.getAmount(), Instant.now()));
+            }));
+            // The debit has committed, so the transfer has happened as far as the client is concerned: a failed
+            // credit is retried here rather than reported, or a client retrying the "failed" transfer pays twice.
+            try {
+                await(handOffCredit(handoff));
+            } catch (RuntimeException e) {
+                logger.warn("Transfer hand-off {} failed, retrying", handoff.getId(), e);
+                retryCredit(handoff, 1);
+            }
+            return transferReq.getAmount();
+        });
+    }
+
+    private boolean partitioned() {
+        return running && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private Partition partitionOf(String accountNo) {
+        return partitions[Math.floorMod(accountNo.hashCode(), partitions.length)];
+    }
+
+    /**
+     * Detached so the caller can serialize the account while later operations of the batch reuse the persistence context.
+     */
+    private Account detached(Account account) {
+        entityManager.detach(account);
+        return account;
+    }
+
+    /**
+     * Not subject to the queue capacity: the debit has committed, so the credit must not be turned away.
+     */
+    private CompletableFuture<Void> handOffCredit(TransferHandoff handoff) {
+        return partitionOf(handoff.getToAccountNo()).handOff(List.of(handoff.getToAccountNo()), () -> credit(handoff));
+    }
+
+    /**
+     * Retries a failed credit with a growing delay until it commits. A hand-off still pending at shutdown stays in
+     * {@code transfer_handoff} and is resumed on the next start.
+     */
+    private void retryCredit(TransferHandoff handoff, int attempt) {
+        long delay = Math.min(handoffRetryDelay.toMillis() << Math.min(attempt - 1, 16), MAX_HANDOFF_RETRY_DELAY.toMillis());
+        CompletableFuture.runAsync(() -> {
+            if (!running) {
+                return;
+            }
+            handOffCredit(handoff).exceptionally(e -> {
+                logger.warn("Transfer hand-off {} failed {} times, retrying", handoff.getId(), attempt + 1, e);
+                retryCredit(handoff, attempt + 1);
+                return null;
+            });
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private Void credit(TransferHandoff handoff) {
+        // Claiming first makes a hand-off credited at most once, even if it is resumed twice.
+        if (handoffRepository.claim(handoff.getId()) == 1) {
+            customerService.applyTransferCredit(handoff.getFromAccountNo(), handoff.getToAccountNo(), handoff.getAmount());
+        }
+        return null;
+    }
+
+    private <T> T measured(String operation, Supplier<T> call) {
+        long start = metrics.start();
+        try {
+            T result = call.get();
+            metrics.record(operation, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.record(operation, start, e);
+            throw e;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+        }
+        batchSize = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Operations committed together by one partition transaction")
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_GAUGE, this, PartitionedAccountExecutor::queued)
+                .description("Operations waiting in partition queues")
+                .register(meterRegistry);
+        running = true;
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+        resumeHandoffs();
+    }
+
+    private void resumeHandoffs() {
+        List<TransferHandoff> pending = transactionTemplate.execute(status -> handoffRepository.findAll());
+        for (TransferHandoff handoff : pending) {
+            logger.warn("Resuming transfer hand-off {} from {} to {}", handoff.getId(), handoff.getFromAccountNo(), handoff.getToAccountNo());
+            handOffCredit(handoff).exceptionally(e -> {
+                logger.warn("Transfer hand-off {} failed, retrying", handoff.getId(), e);
+                retryCredit(handoff, 1);
+                return null;
+            });
+        }
+    }
+
+    private int queued() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.queue.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Hand-offs still queued stay in transfer_handoff and are resumed on the next start.
+        for (Partition partition : partitions) {
+            for (Operation<?> operation : partition.queue) {
+                operation.result.completeExceptionally(new ServiceBusyException("Service is shutting down"));
+            }
+            partition.queue.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Below the web server's phase: partitions start (and resume hand-offs) before requests arrive and stop after the last one.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private final class Partition implements Runnable {
+
+        private final BlockingQueue<Operation<?>> queue = new LinkedBlockingQueue<>();
+
+        private final Thread thread;
+
+        private Partition(int index) {
+            this.thread = new Thread(this, "account-partition-" + index);
+        }
+
+        /**
+         * {@code accountNos} are the accounts {@code action} writes to.
+         */
+        private <T> CompletableFuture<T> submit(List<String> accountNos, Supplier<T> action) {
+            if (!running || queue.size() >= queueCapacity) {
+                throw new ServiceBusyException("Too many pending operations, retry later");
+            }
+            return handOff(accountNos, action);
+        }
+
+        private <T> CompletableFuture<T> handOff(List<String> accountNos, Supplier<T> action) {
+            Operation<T> operation = new Operation<>(accountNos, action);
+            queue.add(operation);
+            return operation.result;
+        }
+
+        @Override
+        public void run() {
+            List<Operation<?>> batch = new ArrayList<>(maxBatchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Operation<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                apply(batch);
+                batch.clear();
+            }
+        }
+
+        private void apply(List<Operation<?>> batch) {
+            batchSize.record(batch.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Taken before the first savepoint and held to the commit: locking the batch's rows in arrival
+                    // order could deadlock with a transactional transfer or batch request, which lock in account
+                    // number order.
+                    Set<String> accountNos = new TreeSet<>();
+                    for (Operation<?> operation : batch) {
+                        accountNos.addAll(operation.accountNos);
+                    }
+                    accountBalanceRepository.lock(accountNos);
+                    // The JPA transaction's JDBC connection, which the balance statements also run on.
+                    ConnectionHolder connection = (ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource);
+                    for (Operation<?> operation : batch) {
+                        operation.apply(connection, entityManager);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Partition batch of {} operations rolled back", batch.size(), e);
+                for (Operation<?> operation : batch) {
+                    operation.fail(e);
+                }
+                return;
+            }
+            for (Operation<?> operation : batch) {
+                operation.complete();
+            }
+        }
+    }
+
+    private static final class Operation<T> {
+
+        private final List<String> accountNos;
+
+        private final Supplier<T> action;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private T value;
+
+        private RuntimeException failure;
+
+        private Operation(List<String> accountNos, Supplier<T> action) {
+            this.accountNos = accountNos;
+            this.action = action;
+        }
+
+        /**
+         * Any failure, a rejection or a database error such as a constraint violation, rolls back to the savepoint
+         * taken before the operation and leaves the batch transaction open for the rest of the batch. The operation
+         * flushes its entity changes before the savepoint is released, so the rollback covers exactly its own
+         * writes, and what it registered to run at commit (ledger appends, balance events) is dropped with them.
+         */
+        private void apply(ConnectionHolder connection, EntityManager entityManager) {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            try {
+                Savepoint savepoint = connection.createSavepoint();
+                try {
+                    value = action.get();
+                    entityManager.flush();
+                } catch (RuntimeException e) {
+                    // Whatever is still unflushed is this operation's: earlier ones flushed theirs.
+                    entityManager.clear();
+                    connection.getConnection().rollback(savepoint);
+                    TransactionSynchronizationManager.clearSynchronization();
+                    TransactionSynchronizationManager.initSynchronization();
+                    synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+                    if (!(e instanceof InvalidTransactionException || e instanceof ResourceNotFoundException
+                            || e instanceof IllegalArgumentException)) {
+                        logger.warn("Partition operation failed, rolled back to its savepoint", e);
+                    }
+                    failure = e;
+                    return;
+                }
+                connection.getConnection().releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                throw new TransactionSystemException("Could not roll back a failed partition operation", e);
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        private void fail(RuntimeException batchFailure) {
+            result.completeExceptionally(failure != null ? failure : batchFailure);
+        }
+    }
+}
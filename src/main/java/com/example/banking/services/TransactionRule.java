@@ -0,0 +1,163 @@
+package com.example.banking.services;
+
+import com.example.banking.exception.RejectionReason;
+import com.example.banking.models.Account;
+import com.example.banking.models.Money;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One compiled check of a {@link TransactionRuleSet} chain. An amount rule holds a threshold for each currency
+ * it is set in, with the rejection message for that currency. Both are built when the rules are compiled, so
+ * evaluating a rule only compares values.
+ */
+public final class TransactionRule {
+
+    /**
+     * Declared from cheapest to most expensive; a chain evaluates its rules in this order.
+     */
+    public enum Kind {
+        /** The operation is not permitted for the account type at all. */
+        NOT_ALLOWED("allowed", RejectionReason.NOT_PERMITTED),
+        MIN_AMOUNT("min-amount", RejectionReason.NOT_PERMITTED),
+        MAX_AMOUNT("max-amount", RejectionReason.LIMIT_EXCEEDED),
+        /** Transfers only: applies when both accounts belong to the same customer. */
+        MAX_AMOUNT_OWN_ACCOUNTS("max-amount.own-accounts", RejectionReason.LIMIT_EXCEEDED),
+        /** Transfers only: applies when the receiving account belongs to another customer. */
+        MAX_AMOUNT_OTHER_CUSTOMER("max-amount.other-customer", RejectionReason.LIMIT_EXCEEDED);
+
+        private final String key;
+
+        private final RejectionReason reason;
+
+        Kind(String key, RejectionReason reason) {
+            this.key = key;
+            this.reason = reason;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        boolean needsCounterparty() {
+            return this == MAX_AMOUNT_OWN_ACCOUNTS || this == MAX_AMOUNT_OTHER_CUSTOMER;
+        }
+    }
+
+    private final Kind kind;
+
+    private final Money threshold;
+
+    private final String message;
+
+    private final RejectionReason reason;
+
+    // The rules of this kind for each currency a threshold is set in, this one included; empty for NOT_ALLOWED.
+    private TransactionRule[] currencies = new TransactionRule[0];
+
+    // What an amount in a currency no threshold is set in breaks instead; null for NOT_ALLOWED.
+    private TransactionRule unsupportedCurrency;
+
+    private TransactionRule(Kind kind, Money threshold, String message, RejectionReason reason) {
+        this.kind = kind;
+        this.threshold = threshold;
+        this.message = message;
+        this.reason = reason;
+    }
+
+    static TransactionRule notAllowed(String message) {
+        return new TransactionRule(Kind.NOT_ALLOWED, null, message, Kind.NOT_ALLOWED.reason);
+    }
+
+    /**
+     * One rule per threshold, returned as the rule of the first one. {@code messages} are the rejection
+     * messages of the thresholds in the same order; no two thresholds may share a currency.
+     */
+    static TransactionRule amount(Kind kind, List<Money> thresholds, List<String> messages, String unsupportedCurrencyMessage) {
+        TransactionRule[] currencies = new TransactionRule[thresholds.size()];
+        TransactionRule unsupportedCurrency = new TransactionRule(kind, null, unsupportedCurrencyMessage, RejectionReason.NOT_PERMITTED);
+        for (int i = 0; i < currencies.length; i++) {
+            currencies[i] = new TransactionRule(kind, thresholds.get(i), messages.get(i), kind.reason);
+        }
+        for (TransactionRule rule : currencies) {
+            rule.currencies = currencies;
+            rule.unsupportedCurrency = unsupportedCurrency;
+        }
+        return currencies[0];
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The amount the rule compares against; {@code null} for {@link Kind#NOT_ALLOWED} and for the rule an
+     * amount in a currency without a threshold breaks.
+     */
+    public Money getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * The thresholds of this kind of rule in every currency it is set in.
+     */
+    public List<Money> getThresholds() {
+        return Arrays.stream(currencies).map(TransactionRule::getThreshold).toList();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+
+    /**
+     * The rule the operation breaks, or {@code null}: this rule or the one for the amount's currency. The
+     * amount is compared before the owners, so an amount within the limit never touches the customer of either
+     * account. An amount in a currency no threshold is set in cannot be compared, so an operation the rule
+     * covers is refused as not permitted rather than let through unchecked.
+     */
+    TransactionRule violation(Account account, Account counterparty, Money amount) {
+        if (kind == Kind.NOT_ALLOWED) {
+            return this;
+        }
+        TransactionRule rule = forCurrency(amount.getCurrency());
+        if (rule == null) {
+            return covers(account, counterparty) ? unsupportedCurrency : null;
+        }
+        Money limit = rule.threshold;
+        boolean rejects = switch (kind) {
+            case NOT_ALLOWED -> true;
+            case MIN_AMOUNT -> amount.isLessThan(limit);
+            case MAX_AMOUNT -> amount.isGreaterThan(limit);
+            case MAX_AMOUNT_OWN_ACCOUNTS -> amount.isGreaterThan(limit) && sameCustomer(account, counterparty);
+            case MAX_AMOUNT_OTHER_CUSTOMER -> amount.isGreaterThan(limit) && !sameCustomer(account, counterparty);
+        };
+        return rejects ? rule : null;
+    }
+
+    // A rule is set in a currency or two, so a scan beats a map lookup and allocates nothing.
+    private TransactionRule forCurrency(String currency) {
+        for (TransactionRule rule : currencies) {
+            if (rule.threshold.getCurrency().equals(currency)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private boolean covers(Account account, Account counterparty) {
+        return switch (kind) {
+            case MAX_AMOUNT_OWN_ACCOUNTS -> sameCustomer(account, counterparty);
+            case MAX_AMOUNT_OTHER_CUSTOMER -> !sameCustomer(account, counterparty);
+            default -> true;
+        };
+    }
+
+    private static boolean sameCustomer(Account account, Account counterparty) {
+        return account.getCustomer().getId().equals(counterparty.getCustomer().getId());
+    }
+}
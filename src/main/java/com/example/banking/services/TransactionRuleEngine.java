@@ -0,0 +1,191 @@
+package com.example.banking.services;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.models.Account;
+import com.example.banking.models.Money;
+import com.example.banking.models.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks deposits, withdrawals and transfers against the {@link TransactionRuleSet} loaded from
+ * {@code banking.rules.location}. Rules that cannot be loaded at startup fail the startup.
+ * <p>
+ * When the location is a file, it is checked for changes every {@code banking.rules.reload-interval} and
+ * a changed file is compiled and swapped in without a restart; operations already checking keep the set
+ * they started with. A file that does not compile is logged and the current rules stay in place.
+ * Evaluation time is published as {@code banking.rules.evaluation} per operation, and reloads as
+ * {@code banking.rules.reloads} per outcome.
+ */
+@Service
+public class TransactionRuleEngine implements SmartLifecycle {
+
+    public static final String EVALUATION_TIMER = "banking.rules.evaluation";
+
+    public static final String RELOADS_COUNTER = "banking.rules.reloads";
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRuleEngine.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${banking.rules.location:classpath:transaction-rules.properties}")
+    private String location;
+
+    @Value("${banking.rules.reload-interval:5s}")
+    private Duration reloadInterval;
+
+    private final Timer[] evaluationTimers;
+
+    private final Counter reloaded;
+
+    private final Counter reloadFailed;
+
+    private volatile TransactionRuleSet rules = TransactionRuleSet.EMPTY;
+
+    private long lastModified;
+
+    private ScheduledExecutorService reloader;
+
+    private volatile boolean running;
+
+    public TransactionRuleEngine(MeterRegistry registry) {
+        TransactionType[] operations = TransactionType.values();
+        evaluationTimers = new Timer[operations.length];
+        for (TransactionType operation : operations) {
+            evaluationTimers[operation.ordinal()] = Timer.builder(EVALUATION_TIMER)
+                    .description("Time spent evaluating the transaction rules of an operation")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        reloaded = Counter.builder(RELOADS_COUNTER).tag("outcome", "success")
+                .description("Reloads of the transaction rules file")
+                .register(registry);
+        reloadFailed = Counter.builder(RELOADS_COUNTER).tag("outcome", "failure")
+                .description("Reloads of the transaction rules file")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        lastModified = lastModified(resource);
+        update(TransactionRuleSet.load(resource));
+        logger.info("Loaded {} transaction rules from {}", rules.size(), location);
+    }
+
+    /**
+     * Throws {@link InvalidTransactionException} with the message of the first rule {@code operation} breaks.
+     * {@code counterparty} is the receiving account of a transfer and {@code null} otherwise.
+     */
+    public void check(TransactionType operation, Account account, Account counterparty, Money amount) {
+        long start = System.nanoTime();
+        TransactionRule violated = rules.firstViolation(operation, account, counterparty, amount);
+        evaluationTimers[operation.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (violated != null) {
+            throw new InvalidTransactionException(violated.getMessage(), violated.getReason());
+        }
+    }
+
+    public TransactionRuleSet getRules() {
+        return rules;
+    }
+
+    public void update(TransactionRuleSet rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Recompiles the rules if the file changed since it was last read; true if new rules were swapped in.
+     */
+    public synchronized boolean reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        if (modified == lastModified) {
+            return false;
+        }
+        // Remembered even if the file does not compile, so a broken file is reported once rather than on every check.
+        lastModified = modified;
+        try {
+            TransactionRuleSet reloadedRules = TransactionRuleSet.load(resource);
+            update(reloadedRules);
+            reloaded.increment();
+            logger.info("Reloaded {} transaction rules from {}", reloadedRules.size(), location);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            reloadFailed.increment();
+            logger.error("Keeping the current transaction rules, {} could not be loaded", location, e);
+            return false;
+        }
+    }
+
+    private void reload() {
+        try {
+            reloadIfChanged();
+        } catch (RuntimeException e) {
+            logger.error("Checking {} for changed transaction rules failed", location, e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isReloadable()) {
+            logger.info("Transaction rules in {} are not reloaded while running", location);
+            running = true;
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-rules-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reload, reloadInterval.toMillis(), reloadInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    private boolean isReloadable() {
+        return !reloadInterval.isZero() && resourceLoader.getResource(location).isFile();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (reloader != null) {
+            reloader.shutdownNow();
+            reloader = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.banking.services;
+
+import com.example.banking.models.Account;
+import com.example.banking.models.AccountType;
+import com.example.banking.models.Money;
+import com.example.banking.models.TransactionType;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Transaction rules compiled into one ordered chain per operation and account type. The account type is
+ * that of the account the money leaves, or for deposits the account it goes into.
+ * <p>
+ * Rules are read from properties of the form {@code <operation>[.<account type>].<rule>=<value>}, for
+ * example {@code transfer.regular.max-amount.other-customer=15000} or {@code withdraw.saving.allowed=false}.
+ * A rule without an account type applies to every type, and a rule for one type replaces it for that type.
+ * An amount rule lists a threshold per currency, for example {@code 15000 EUR, 16000 USD}; an amount without
+ * a currency is in {@code currency} (default EUR). An operation an amount rule covers is not permitted on an
+ * account in a currency the rule sets no threshold in, since its amount cannot be compared with any of them.
+ * {@code <key>.message} sets the rejection message and {@code <key>.message.<currency>} the message for one
+ * currency. See {@link TransactionRule.Kind} for the rules.
+ * <p>
+ * Each chain is sorted so the cheapest rejects run first: whether the operation is permitted at all, then
+ * bounds on the amount, then limits that depend on who owns the receiving account. Evaluation walks an
+ * array and compares {@link Money} values, so it allocates nothing. A compiled set is immutable.
+ */
+public final class TransactionRuleSet {
+
+    private static final String CURRENCY_KEY = "currency";
+
+    private static final String MESSAGE_SUFFIX = ".message";
+
+    private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+    // After the constants compile() uses.
+    public static final TransactionRuleSet EMPTY = compile(new Properties());
+
+    // Indexed by operation ordinal * number of account types + account type ordinal.
+    private final TransactionRule[][] chains;
+
+    private final int size;
+
+    private TransactionRuleSet(TransactionRule[][] chains) {
+        this.chains = chains;
+        int size = 0;
+        for (TransactionRule[] chain : chains) {
+            size += chain.length;
+        }
+        this.size = size;
+    }
+
+    public static TransactionRuleSet load(Resource resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+        }
+        return compile(properties);
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} naming the key of the first rule that cannot be compiled.
+     */
+    public static TransactionRuleSet compile(Properties properties) {
+        String currency = properties.getProperty(CURRENCY_KEY, Money.EUR).trim();
+        TransactionType[] operations = TransactionType.values();
+        List<Map<TransactionRule.Kind, String>> keys = new ArrayList<>();
+        for (int i = 0; i < operations.length * (ACCOUNT_TYPES.length + 1); i++) {
+            keys.add(new EnumMap<>(TransactionRule.Kind.class));
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            if (key.equals(CURRENCY_KEY) || key.endsWith(MESSAGE_SUFFIX) || key.contains(MESSAGE_SUFFIX + ".")) {
+                continue;
+            }
+            String[] parts = key.split("\\.", 3);
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Transaction rule " + key + " names no rule");
+            }
+            TransactionType operation = parseOperation(parts[0], key);
+            AccountType accountType = parts.length > 2 ? parseAccountType(parts[1]) : null;
+            String rule = accountType == null ? key.substring(parts[0].length() + 1) : parts[2];
+            TransactionRule.Kind kind = kind(rule, key);
+            if (kind.needsCounterparty() && operation != TransactionType.TRANSFER) {
+                throw new IllegalArgumentException("Transaction rule " + key + " only applies to transfers");
+            }
+            int slot = operation.ordinal() * (ACCOUNT_TYPES.length + 1) + (accountType == null ? 0 : accountType.ordinal() + 1);
+            keys.get(slot).put(kind, key);
+        }
+
+        TransactionRule[][] chains = new TransactionRule[operations.length * ACCOUNT_TYPES.length][];
+        for (TransactionType operation : operations) {
+            int base = operation.ordinal() * (ACCOUNT_TYPES.length + 1);
+            for (AccountType accountType : ACCOUNT_TYPES) {
+                Map<TransactionRule.Kind, String> effective = new EnumMap<>(keys.get(base));
+                effective.putAll(keys.get(base + accountType.ordinal() + 1));
+                // EnumMap iterates in declaration order, which is the cost order.
+                List<TransactionRule> chain = new ArrayList<>();
+                effective.forEach((kind, key) -> {
+                    TransactionRule rule = rule(kind, key, properties, operation, accountType, currency);
+                    if (rule != null) {
+                        chain.add(rule);
+                    }
+                });
+                chains[operation.ordinal() * ACCOUNT_TYPES.length + accountType.ordinal()] = chain.toArray(new TransactionRule[0]);
+            }
+        }
+        return new TransactionRuleSet(chains);
+    }
+
+    /**
+     * The first rule rejecting the operation, or {@code null} when it passes them all. {@code counterparty}
+     * is the receiving account of a transfer and {@code null} otherwise.
+     */
+    public TransactionRule firstViolation(TransactionType operation, Account account, Account counterparty, Money amount) {
+        TransactionRule[] chain = chains[operation.ordinal() * ACCOUNT_TYPES.length + account.getAccountType().ordinal()];
+        for (TransactionRule rule : chain) {
+            TransactionRule violated = rule.violation(account, counterparty, amount);
+            if (violated != null) {
+                return violated;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The rules evaluated for {@code operation} on {@code accountType}, in evaluation order.
+     */
+    public List<TransactionRule> chain(TransactionType operation, AccountType accountType) {
+        return List.of(chains[operation.ordinal() * ACCOUNT_TYPES.length + accountType.ordinal()]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static TransactionRule rule(TransactionRule.Kind kind, String key, Properties properties,
+                                        TransactionType operation, AccountType accountType, String currency) {
+        String value = properties.getProperty(key).trim();
+        String message = properties.getProperty(key + MESSAGE_SUFFIX);
+        if (kind == TransactionRule.Kind.NOT_ALLOWED) {
+            if (!value.equals("true") && !value.equals("false")) {
+                throw new IllegalArgumentException("Transaction rule " + key + " must be true or false");
+            }
+            if (value.equals("true")) {
+                return null;
+            }
+            return TransactionRule.notAllowed(message != null ? message
+                    : "Not permitted: " + name(operation) + " on a " + name(accountType) + " account");
+        }
+        List<Money> thresholds = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        for (String amount : value.split(",")) {
+            Money threshold = threshold(amount.trim(), currency, key);
+            for (Money other : thresholds) {
+                if (other.getCurrency().equals(threshold.getCurrency())) {
+                    throw new IllegalArgumentException("Transaction rule " + key + " sets " + threshold.getCurrency() + " twice");
+                }
+            }
+            thresholds.add(threshold);
+            String currencyMessage = properties.getProperty(key + MESSAGE_SUFFIX + "." + threshold.getCurrency(), message);
+            if (currencyMessage == null) {
+                currencyMessage = kind == TransactionRule.Kind.MIN_AMOUNT
+                        ? "Amount too low: " + name(operation) + " must be at least " + threshold
+                        : "Limit exceeded: " + name(operation) + " cannot exceed " + threshold;
+            }
+            messages.add(currencyMessage);
+        }
+        String currencies = String.join(", ", thresholds.stream().map(Money::getCurrency).toList());
+        return TransactionRule.amount(kind, thresholds, messages,
+                "Not permitted: " + name(operation) + " limits are only set for accounts in " + currencies);
+    }
+
+    /**
+     * {@code <amount> [<currency>]}, in {@code currency} when no currency is given.
+     */
+    private static Money threshold(String value, String currency, String key) {
+        String[] parts = value.split("\\s+");
+        if (parts.length > 2 || (parts.length == 2 && !CURRENCY_CODE.matcher(parts[1]).matches())) {
+            throw new IllegalArgumentException("Transaction rule " + key + " must list amounts with an optional currency code, not " + value);
+        }
+        try {
+            return Money.of(new BigDecimal(parts[0]), parts.length == 2 ? parts[1] : currency);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Transaction rule " + key + " must be an amount with at most "
+                    + Money.SCALE + " decimal places, not " + value, e);
+        }
+    }
+
+    private static TransactionRule.Kind kind(String rule, String key) {
+        for (TransactionRule.Kind kind : TransactionRule.Kind.values()) {
+            if (kind.getKey().equals(rule)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction rule " + key);
+    }
+
+    private static AccountType parseAccountType(String value) {
+        for (AccountType accountType : ACCOUNT_TYPES) {
+            if (name(accountType).equals(value)) {
+                return accountType;
+            }
+        }
+        return null;
+    }
+
+    private static TransactionType parseOperation(String value, String key) {
+        for (TransactionType operation : TransactionType.values()) {
+            if (name(operation).equals(value)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in transaction rule " + key);
+    }
+
+    private static String name(Enum<?> constant) {
+        return constant.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,14 +3,12 @@ package com.example.banking.services;
 import com.example.banking.exception.ResourceNotFoundException;
 import com.example.banking.models.User;
 import com.example.banking.repository.UserRepository;
+import com.example.banking.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 public class UserDetailServiceImp implements UserDetailsService {
 
@@ -23,9 +21,6 @@ public class UserDetailServiceImp implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User Not Found for username: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority(user.getRole())));
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
     }
 }
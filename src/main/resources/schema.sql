@@ -1,3 +1,12 @@
+-- Dropped children first so a re-initialised database does not trip over foreign keys
+DROP TABLE IF EXISTS outbox_event;
+DROP TABLE IF EXISTS ledger_log_offset;
+DROP TABLE IF EXISTS transfer_handoff;
+DROP TABLE IF EXISTS idempotency_record;
+DROP TABLE IF EXISTS ledger_entry;
+DROP SEQUENCE IF EXISTS ledger_entry_seq;
+DROP TABLE IF EXISTS account;
+DROP TABLE IF EXISTS customer;
 DROP TABLE IF EXISTS users;
 
 CREATE TABLE IF NOT EXISTS users (
@@ -8,8 +17,6 @@ CREATE TABLE IF NOT EXISTS users (
     role VARCHAR(20)
 );
 
-DROP TABLE IF EXISTS customer;
-
 CREATE TABLE IF NOT EXISTS customer (
     id VARCHAR(255) PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
@@ -19,14 +26,62 @@ CREATE TABLE IF NOT EXISTS customer (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
-DROP TABLE IF EXISTS account;
-
 CREATE TABLE IF NOT EXISTS account (
     account_no VARCHAR(255) PRIMARY KEY,
     customer_id VARCHAR(255) NOT NULL,
     balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
     account_type VARCHAR(50) NOT NULL,
     currency VARCHAR(10) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (customer_id) REFERENCES customer(id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS ledger_entry_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ledger_entry (
+    id BIGINT PRIMARY KEY,
+    account_no VARCHAR(255) NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    direction VARCHAR(10) NOT NULL,
+    counterparty_account_no VARCHAR(255),
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    running_balance DECIMAL(15,2) NOT NULL,
+    FOREIGN KEY (account_no) REFERENCES account(account_no)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_account_time ON ledger_entry (account_no, created_at, id);
+
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    idempotency_key VARCHAR(320) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INT NOT NULL,
+    response_body CLOB NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transfer_handoff (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    from_account_no VARCHAR(255) NOT NULL,
+    to_account_no VARCHAR(255) NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    FOREIGN KEY (from_account_no) REFERENCES account(account_no),
+    FOREIGN KEY (to_account_no) REFERENCES account(account_no)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_log_offset (
+    log_name VARCHAR(64) PRIMARY KEY,
+    segment BIGINT NOT NULL,
+    segment_offset INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    account_no VARCHAR(255) NOT NULL,
+    account_type VARCHAR(50) NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    version BIGINT NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,81 @@
+package com.example.banking.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogFilterTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("access");
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private AccessLogFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+        filter = new AccessLogFilter();
+        ReflectionTestUtils.setField(filter, "slowThreshold", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    void testUnsampledSuccess_NotLogged() throws Exception {
+        ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/customer/accounts"), response(200), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testServerError_AlwaysLoggedWithFields() throws Exception {
+        ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/customer/transfer"), response(500), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        Map<String, Object> fields = appender.list.get(0).getKeyValuePairs().stream()
+                .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+        assertEquals("POST", fields.get("http.request.method"));
+        assertEquals("/api/v1/customer/transfer", fields.get("url.path"));
+        assertEquals(500, fields.get("http.response.status_code"));
+    }
+
+    @Test
+    void testFullSampleRate_LogsEveryRequest() throws Exception {
+        ReflectionTestUtils.setField(filter, "sampleRate", 1.0);
+
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/customer/accounts"), response(200), new MockFilterChain());
+        }
+
+        assertEquals(3, appender.list.size());
+    }
+
+    private static MockHttpServletResponse response(int status) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(status);
+        return response;
+    }
+}
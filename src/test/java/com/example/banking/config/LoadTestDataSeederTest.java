@@ -0,0 +1,47 @@
+package com.example.banking.config;
+
+import com.example.banking.payload.request.LoginRequest;
+import com.example.banking.services.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.loadtest.customers=1500",
+        "banking.loadtest.accounts-per-customer=4"
+})
+@ActiveProfiles("loadtest")
+@DirtiesContext
+public class LoadTestDataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void testSeed_CreatesDeterministicCustomersAndAccounts() {
+        assertEquals(1500, count("SELECT COUNT(*) FROM customer WHERE id LIKE 'LC%'"));
+        assertEquals(6000, count("SELECT COUNT(*) FROM account WHERE customer_id LIKE 'LC%'"));
+        assertEquals(1500, count("SELECT COUNT(*) FROM account WHERE customer_id LIKE 'LC%' AND account_type = 'SAVING'"));
+        assertEquals("SAVING", jdbcTemplate.queryForObject("SELECT account_type FROM account WHERE account_no = ?",
+                String.class, LoadTestDataSeeder.accountNo(1499, 2)));
+    }
+
+    @Test
+    void testSeededCustomer_CanSignIn() {
+        String username = LoadTestDataSeeder.username(42);
+
+        assertEquals(username, authService.authenticateUser(new LoginRequest(username, LoadTestDataSeeder.PASSWORD)).getUsername());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
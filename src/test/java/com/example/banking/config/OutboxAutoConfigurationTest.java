@@ -0,0 +1,48 @@
+package com.example.banking.config;
+
+import com.example.banking.services.InMemoryOutboxSink;
+import com.example.banking.services.OutboxSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboxAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(OutboxAutoConfiguration.class))
+            .withPropertyValues("banking.outbox.enabled=true", "banking.outbox.sink=memory");
+
+    @Test
+    void testSinkProperty_SelectsTheSink() {
+        contextRunner.run(context -> assertInstanceOf(InMemoryOutboxSink.class, context.getBean(OutboxSink.class)));
+    }
+
+    @Test
+    void testOwnSink_ReplacesTheConfiguredOne() {
+        // User configuration is processed before auto-configurations, so the missing-bean check sees this sink.
+        contextRunner.withUserConfiguration(BrokerSinkConfig.class)
+                .run(context -> assertSame(BrokerSinkConfig.SINK, context.getBean(OutboxSink.class)));
+    }
+
+    @Test
+    void testOutboxDisabled_NoSink() {
+        contextRunner.withPropertyValues("banking.outbox.enabled=false")
+                .run(context -> assertTrue(context.getBeansOfType(OutboxSink.class).isEmpty()));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class BrokerSinkConfig {
+
+        static final OutboxSink SINK = events -> {
+        };
+
+        @Bean
+        OutboxSink brokerOutboxSink() {
+            return SINK;
+        }
+    }
+}
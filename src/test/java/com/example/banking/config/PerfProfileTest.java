@@ -0,0 +1,84 @@
+package com.example.banking.config;
+
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("perf")
+@DirtiesContext
+public class PerfProfileTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testPool_FixedSizeWithShortTimeout() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertEquals(20, hikari.getMaximumPoolSize());
+        assertEquals(20, hikari.getMinimumIdle());
+        assertEquals(2000, hikari.getConnectionTimeout());
+    }
+
+    @Test
+    void testTransfer_OneReadAndBatchedLedgerInserts() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+        // The first transfer also fetches a block of ledger ids from the sequence.
+        customerService.transferAmount(transferRequest());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        customerService.transferAmount(transferRequest());
+
+        // One read of both accounts and one batch for both ledger inserts; the two balance
+        // updates are plain JDBC statements and do not go through Hibernate.
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testPoolWaitTime_PublishedWithPercentiles() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "banking").timer());
+    }
+
+    private static TransactionRequest transferRequest() {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo("121212121");
+        request.setToAccountNo("444444444");
+        request.setAmount(new BigDecimal("1.00"));
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.banking.config;
+
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The replica is a second in-memory H2 database loaded from the same scripts but never written by the
+ * application, so any difference between the two shows which one a query was routed to.
+ */
+@SpringBootTest(properties = {
+        "banking.datasource.replica.url=jdbc:h2:mem:replica;INIT=RUNSCRIPT FROM 'classpath:schema.sql'\\\\;RUNSCRIPT FROM 'classpath:data.sql'",
+        "banking.datasource.replica.hikari.maximum-pool-size=1"
+})
+@DirtiesContext
+public class ReadReplicaRoutingTest {
+
+    private static final String ACCOUNT_NO = "555555555";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal john = new UserPrincipal("2", "john", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(john, null, john.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testAccountList_ReadFromReplica() {
+        new JdbcTemplate(replica).update("UPDATE account SET balance = 1.00 WHERE account_no = ?", ACCOUNT_NO);
+
+        AccountResponse account = customerService.getCustomerAccountList().stream()
+                .filter(response -> response.getAccountNo().equals(ACCOUNT_NO))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0, new BigDecimal("1.00").compareTo(account.getBalance()));
+        assertNotEquals(0, new BigDecimal("1.00").compareTo(balance(primary)));
+    }
+
+    @Test
+    void testDeposit_WrittenToPrimaryAndHistoryReadFromReplica() {
+        BigDecimal before = balance(primary);
+
+        TransactionRequest deposit = new TransactionRequest();
+        deposit.setToAccountNo(ACCOUNT_NO);
+        deposit.setAmount(new BigDecimal("10.00"));
+        customerService.depositAmount(deposit);
+
+        assertEquals(0, before.add(new BigDecimal("10.00")).compareTo(balance(primary)));
+        assertEquals(0, ledgerEntries(replica));
+        assertTrue(ledgerEntries(primary) > 0);
+        assertTrue(customerService.getTransactionHistory(ACCOUNT_NO, null, 10).getTransactions().isEmpty());
+    }
+
+    private static BigDecimal balance(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT balance FROM account WHERE account_no = ?", BigDecimal.class, ACCOUNT_NO);
+    }
+
+    private static int ledgerEntries(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM ledger_entry WHERE account_no = ?", Integer.class, ACCOUNT_NO);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatVirtualThreadsWebServerFactoryCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual-threads")
+public class VirtualThreadsProfileTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testConnectionPool_SizedForUnboundedRequestConcurrency() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertEquals(40, hikari.getMaximumPoolSize());
+        assertEquals(5000, hikari.getConnectionTimeout());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testTomcat_UsesVirtualThreadsOnJava21() {
+        assertEquals(1, context.getBeansOfType(TomcatVirtualThreadsWebServerFactoryCustomizer.class).size());
+    }
+}
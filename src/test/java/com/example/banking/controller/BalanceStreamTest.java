@@ -0,0 +1,203 @@
+package com.example.banking.controller;
+
+import com.example.banking.events.AccountBalanceChangedEvent;
+import com.example.banking.models.AccountType;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.JwtUtils;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.BalanceStreamRegistry;
+import com.example.banking.services.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the stream over a real connection. Runs on its own database so its deposits do not disturb the
+ * balances other tests expect. A single sending thread shows a stuck client holding up everyone else.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stream",
+        "banking.stream.max-per-customer=1",
+        "banking.stream.heartbeat-interval=200ms",
+        "banking.stream.threads=1",
+        "banking.stream.send-timeout=500ms"
+})
+@DirtiesContext
+public class BalanceStreamTest {
+
+    private static final UserPrincipal JOHN = new UserPrincipal("2", "john", "customer");
+
+    private static final UserPrincipal BOB = new UserPrincipal("1", "bob", "customer");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BalanceStreamRegistry registry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private String token;
+
+    private CompletableFuture<HttpResponse<Stream<String>>> stream;
+
+    @BeforeEach
+    void setUp() {
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(JOHN, null, JOHN.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        if (stream != null) {
+            stream.thenAccept(response -> response.body().close());
+        }
+        // The server notices the closed connection at the next heartbeat at the latest.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get(BalanceStreamRegistry.SUBSCRIBERS_GAUGE).gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void testStream_SendsCurrentBalancesThenCommittedChangesAndHeartbeats() throws Exception {
+        BlockingQueue<String> lines = open();
+
+        // John's three accounts, in account number order.
+        assertTrue(next(lines, "data:").contains("\"accountNo\":\"555555555\""));
+        next(lines, "data:");
+        next(lines, "data:");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(JOHN, null, JOHN.getAuthorities()));
+        TransactionRequest deposit = new TransactionRequest();
+        deposit.setToAccountNo("555555555");
+        deposit.setAmount(new BigDecimal("10.00"));
+        BigDecimal balance = customerService.depositAmount(deposit).getBalance();
+
+        String change = next(lines, "data:");
+        assertTrue(change.contains("\"accountNo\":\"555555555\""));
+        assertTrue(change.contains("\"balance\":" + balance.toPlainString()));
+        assertEquals(":heartbeat", next(lines, ":"));
+    }
+
+    @Test
+    void testSecondStreamOfSameCustomer_Rejected() throws Exception {
+        BlockingQueue<String> lines = open();
+        next(lines, "data:");
+
+        HttpResponse<String> second = client.send(request(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(503, second.statusCode());
+        assertTrue(second.body().startsWith("event: error"));
+    }
+
+    @Test
+    void testClientThatStopsReading_DroppedWithoutStallingOtherStreams() throws Exception {
+        BlockingQueue<String> lines = open();
+        next(lines, "data:");
+        double droppedBefore = meterRegistry.get(BalanceStreamRegistry.DROPPED_COUNTER).counter().count();
+
+        try (Socket stuck = new Socket()) {
+            // A tiny receive window fills up after a few events, and nothing is ever read from it.
+            stuck.setReceiveBufferSize(256);
+            stuck.connect(new InetSocketAddress("localhost", port));
+            String bobToken = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(BOB, null, BOB.getAuthorities()));
+            OutputStream out = stuck.getOutputStream();
+            out.write(("GET /api/v1/customer/accounts/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                    + "Authorization: Bearer " + bobToken + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            for (long version = 1_000; droppedBefore == meterRegistry.get(BalanceStreamRegistry.DROPPED_COUNTER).counter().count()
+                    && System.nanoTime() < deadline; version++) {
+                registry.onBalanceChanged(new AccountBalanceChangedEvent(List.of(new BalanceSnapshot("121212121",
+                        AccountType.REGULAR, new BigDecimal("1" + "0".repeat(12) + ".00"), "EUR", version))));
+                if (version % 100 == 0) {
+                    Thread.sleep(1);
+                }
+            }
+            assertEquals(droppedBefore + 1, meterRegistry.get(BalanceStreamRegistry.DROPPED_COUNTER).counter().count());
+
+            // The only sending thread is free again while the stuck connection is still open.
+            registry.onBalanceChanged(new AccountBalanceChangedEvent(List.of(new BalanceSnapshot("555555555",
+                    AccountType.SAVING, new BigDecimal("1.00"), "EUR", Long.MAX_VALUE))));
+            String change;
+            do {
+                change = next(lines, "data:");
+            } while (!change.contains("\"balance\":1.00"));
+            assertTrue(change.contains("\"accountNo\":\"555555555\""));
+        }
+    }
+
+    @Test
+    void testStream_RequiresAuthentication() throws Exception {
+        HttpRequest anonymous = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customer/accounts/stream")).build();
+
+        assertEquals(401, client.send(anonymous, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    private BlockingQueue<String> open() {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        stream = client.sendAsync(request(), HttpResponse.BodyHandlers.ofLines());
+        stream.thenAccept(response -> {
+            assertEquals(200, response.statusCode());
+            response.body().forEach(lines::add);
+        });
+        return lines;
+    }
+
+    private HttpRequest request() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customer/accounts/stream"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .build();
+    }
+
+    private static String next(BlockingQueue<String> lines, String prefix) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            String line = lines.poll(100, TimeUnit.MILLISECONDS);
+            if (line != null && line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        fail("No line starting with " + prefix);
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.banking.controller;
+
+import com.example.banking.security.JwtUtils;
+import com.example.banking.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the customer account endpoints against lazy loading and N+1 regressions by counting the
+ * statements Hibernate runs while serving one authenticated request.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class CustomerAccountsQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        UserPrincipal john = new UserPrincipal("2", "john", "customer");
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(john, null, john.getAuthorities()));
+    }
+
+    @Test
+    void testGetCustomerAccountList_SingleStatement() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/v1/customer/accounts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(3))
+                .andExpect(jsonPath("$.data[0].accountNo").value("555555555"))
+                .andExpect(jsonPath("$.data[0].customer").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testTransfer_LoadsAccountsAndOwnersWithOneQuery() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(post("/api/v1/customer/transfer").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountNo\":\"717171717\",\"toAccountNo\":\"828282828\",\"amount\":1.00}"))
+                .andExpect(status().isOk());
+
+        // One select for both accounts, joining customer and user; no follow-up fetches.
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    @Test
+    void testGetTransactionHistory_OwnershipCheckWithoutEntities() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/v1/customer/accounts/555555555/transactions").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+}
@@ -4,9 +4,19 @@ import com.example.banking.controllers.CustomerController;
 import com.example.banking.models.Account;
 import com.example.banking.models.AccountType;
 import com.example.banking.models.User;
+import com.example.banking.payload.request.BatchMode;
+import com.example.banking.payload.request.BatchTransactionRequest;
 import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.payload.response.BatchItemResult;
+import com.example.banking.payload.response.BatchItemStatus;
+import com.example.banking.payload.response.BatchTransactionResponse;
 import com.example.banking.payload.response.GenericResponse;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.services.BalanceStreamRegistry;
 import com.example.banking.services.CustomerService;
+import com.example.banking.services.IdempotencyService;
+import com.example.banking.services.PartitionedAccountExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,14 +24,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.OK;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +44,15 @@ public class CustomerControllerTest {
     @Mock
     private CustomerService customerService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PartitionedAccountExecutor partitionedExecutor;
+
+    @Mock
+    private BalanceStreamRegistry balanceStream;
+
 
     @InjectMocks
     private CustomerController customerController;
@@ -51,11 +74,15 @@ public class CustomerControllerTest {
         mockTransaction.setToAccountNo("111684447");
         mockTransaction.setFromAccountNo("2222311344");
         mockTransaction.setAmount(new BigDecimal("500.00"));
+
+        lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
     }
 
     @Test
     void testGetCustomerAccountList_Success() {
-        when(customerService.getCustomerAccountList()).thenReturn(List.of(mockAccount));
+        AccountResponse summary = new AccountResponse("111684447", AccountType.REGULAR, new BigDecimal("1000.00"), "EUR");
+        when(customerService.getCustomerAccountList()).thenReturn(List.of(summary));
 
         ResponseEntity<?> response = customerController.getCustomerAccountList();
 
@@ -65,11 +92,20 @@ public class CustomerControllerTest {
         assertEquals("Successfully fetched customer accounts", body.getMessage());
     }
 
+    @Test
+    void testStreamAccountBalances_SubscribesLoggedInCustomer() {
+        SseEmitter emitter = new SseEmitter();
+        when(customerService.getLoggedInUser()).thenReturn("john");
+        when(balanceStream.subscribe("john")).thenReturn(emitter);
+
+        assertSame(emitter, customerController.streamAccountBalances());
+    }
+
     @Test
     void testDeposit_Success() {
-        when(customerService.depositAmount(any())).thenReturn(mockAccount);
+        when(partitionedExecutor.deposit(any())).thenReturn(mockAccount);
 
-        ResponseEntity<?> response = customerController.deposit(mockTransaction);
+        ResponseEntity<?> response = customerController.deposit(mockTransaction, null);
 
         assertEquals(CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -80,9 +116,9 @@ public class CustomerControllerTest {
 
     @Test
     void testWithdraw_Success() {
-        when(customerService.withdrawAmount(any())).thenReturn(mockAccount);
+        when(partitionedExecutor.withdraw(any())).thenReturn(mockAccount);
 
-        ResponseEntity<?> response = customerController.withdraw(mockTransaction);
+        ResponseEntity<?> response = customerController.withdraw(mockTransaction, null);
 
         assertEquals(OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -93,9 +129,9 @@ public class CustomerControllerTest {
 
     @Test
     void testTransfer_Success() {
-        when(customerService.transferAmount(any())).thenReturn(mockTransaction.getAmount());
+        when(partitionedExecutor.transfer(any())).thenReturn(mockTransaction.getAmount());
 
-        ResponseEntity<?> response = customerController.transfer(mockTransaction);
+        ResponseEntity<?> response = customerController.transfer(mockTransaction, null);
 
         assertEquals(OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -104,4 +140,44 @@ public class CustomerControllerTest {
         assertEquals(new BigDecimal("500.00"), body.getData());
     }
 
+    @Test
+    void testGetTransactionHistory_Success() {
+        TransactionHistoryResponse history = new TransactionHistoryResponse(List.of(), "next");
+        when(customerService.getTransactionHistory("111684447", null, 50)).thenReturn(history);
+
+        ResponseEntity<?> response = customerController.getTransactionHistory("111684447", null, 50);
+
+        assertEquals(OK, response.getStatusCode());
+        GenericResponse<?> body = (GenericResponse<?>) response.getBody();
+        assertEquals("Successfully fetched account transactions", body.getMessage());
+        assertEquals("next", ((TransactionHistoryResponse) body.getData()).getNextCursor());
+    }
+
+    @Test
+    void testBatch_AllOrNothingRejected() {
+        BatchTransactionRequest batchRequest = new BatchTransactionRequest();
+        batchRequest.setMode(BatchMode.ALL_OR_NOTHING);
+        BatchTransactionResponse result = new BatchTransactionResponse(BatchMode.ALL_OR_NOTHING, 0, 1,
+                List.of(new BatchItemResult(0, BatchItemStatus.REJECTED, "Insufficient funds")));
+        when(customerService.applyBatch(batchRequest)).thenReturn(result);
+
+        ResponseEntity<?> response = customerController.batch(batchRequest);
+
+        assertEquals(FORBIDDEN, response.getStatusCode());
+        assertEquals("Batch rejected", ((GenericResponse<?>) response.getBody()).getMessage());
+    }
+
+    @Test
+    void testBatch_BestEffortProcessed() {
+        BatchTransactionRequest batchRequest = new BatchTransactionRequest();
+        batchRequest.setMode(BatchMode.BEST_EFFORT);
+        BatchTransactionResponse result = new BatchTransactionResponse(BatchMode.BEST_EFFORT, 1, 1, List.of());
+        when(customerService.applyBatch(batchRequest)).thenReturn(result);
+
+        ResponseEntity<?> response = customerController.batch(batchRequest);
+
+        assertEquals(OK, response.getStatusCode());
+        assertEquals("Batch processed", ((GenericResponse<?>) response.getBody()).getMessage());
+    }
+
 }
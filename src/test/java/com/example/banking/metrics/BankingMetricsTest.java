@@ -0,0 +1,56 @@
+package com.example.banking.metrics;
+
+import com.example.banking.exception.InvalidJwtException;
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.RejectionReason;
+import com.example.banking.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BankingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BankingMetrics metrics = new BankingMetrics(registry);
+
+    @Test
+    void testOutcome_MapsFailuresToTags() {
+        assertEquals("success", BankingMetrics.outcome(null));
+        assertEquals("insufficient_funds", BankingMetrics.outcome(
+                new InvalidTransactionException("Insufficient funds", RejectionReason.INSUFFICIENT_FUNDS)));
+        assertEquals("limit_exceeded", BankingMetrics.outcome(
+                new InvalidTransactionException("Transfer limit exceeded", RejectionReason.LIMIT_EXCEEDED)));
+        assertEquals("not_permitted", BankingMetrics.outcome(new InvalidTransactionException("Savings")));
+        assertEquals("not_found", BankingMetrics.outcome(new ResourceNotFoundException("Account not found")));
+        assertEquals("unauthorized", BankingMetrics.outcome(new BadCredentialsException("Invalid username or password")));
+        assertEquals("unauthorized", BankingMetrics.outcome(new InvalidJwtException("JWT token is expired")));
+        assertEquals("invalid_request", BankingMetrics.outcome(new IllegalArgumentException("Amount must be greater than zero")));
+        assertEquals("error", BankingMetrics.outcome(new IllegalStateException()));
+    }
+
+    @Test
+    void testRecord_TimerPerOperationAndOutcome() {
+        metrics.record("deposit", metrics.start(), null);
+        metrics.record("deposit", metrics.start(), null);
+        metrics.record("deposit", metrics.start(), new ResourceNotFoundException("Account not found"));
+
+        assertEquals(2, registry.get(BankingMetrics.OPERATION_TIMER)
+                .tag("operation", "deposit").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get(BankingMetrics.OPERATION_TIMER)
+                .tag("operation", "deposit").tag("outcome", "not_found").timer().count());
+    }
+
+    @Test
+    void testLockWait_GaugeTracksWaitingThreads() {
+        long requested = metrics.lockRequested();
+        assertEquals(1, registry.get(BankingMetrics.LOCK_WAITING_GAUGE).gauge().value());
+
+        metrics.lockAcquired(requested);
+
+        assertEquals(0, registry.get(BankingMetrics.LOCK_WAITING_GAUGE).gauge().value());
+        assertEquals(1, registry.get(BankingMetrics.LOCK_WAIT_TIMER).timer().count());
+    }
+}
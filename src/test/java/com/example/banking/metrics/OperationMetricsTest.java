@@ -0,0 +1,92 @@
+package com.example.banking.metrics;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.payload.request.LoginRequest;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.AuthService;
+import com.example.banking.services.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OperationMetricsTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal john = new UserPrincipal("2", "john", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(john, null, john.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTransfer_RecordsOutcomeAndLockWait() {
+        long successBefore = operationCount("transfer", "success");
+        long limitBefore = operationCount("transfer", "limit_exceeded");
+        long locksBefore = meterRegistry.get(BankingMetrics.LOCK_WAIT_TIMER).timer().count();
+
+        customerService.transferAmount(transferRequest("717171717", "828282828", "1.00"));
+        assertThrows(InvalidTransactionException.class,
+                () -> customerService.transferAmount(transferRequest("717171717", "121212121", "15000.01")));
+
+        assertEquals(successBefore + 1, operationCount("transfer", "success"));
+        assertEquals(limitBefore + 1, operationCount("transfer", "limit_exceeded"));
+        // Two balance updates for the applied transfer; the rejected one fails its checks before locking anything.
+        assertEquals(locksBefore + 2, meterRegistry.get(BankingMetrics.LOCK_WAIT_TIMER).timer().count());
+    }
+
+    @Test
+    void testLogin_RecordsUnauthorizedOutcome() {
+        long before = operationCount("login", "unauthorized");
+
+        assertThrows(BadCredentialsException.class, () -> authService.authenticateUser(new LoginRequest("john", "wrong")));
+
+        assertEquals(before + 1, operationCount("login", "unauthorized"));
+    }
+
+    @Test
+    void testConnectionPoolGauges_Published() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").gauge());
+    }
+
+    private long operationCount(String operation, String outcome) {
+        var timer = Search.in(meterRegistry).name(BankingMetrics.OPERATION_TIMER)
+                .tag("operation", operation).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static TransactionRequest transferRequest(String from, String to, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(from);
+        request.setToAccountNo(to);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.banking.model;
+
+import com.example.banking.models.Money;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every operation is checked against the same operation on {@link BigDecimal}. Operands stay within
+ * {@code DECIMAL(15,2)}, the range of the amount columns, unless a property is about overflow.
+ */
+public class MoneyTest {
+
+    private static final long MAX_COLUMN = 999_999_999_999_999L;
+
+    @Property
+    void conversion_RoundTripsAmountsOfAnyScaleUpToTwo(@ForAll @LongRange(min = -MAX_COLUMN, max = MAX_COLUMN) long unscaled,
+                                                        @ForAll @IntRange(min = 0, max = 2) int scale,
+                                                        @ForAll @IntRange(min = 0, max = 3) int trailingZeros) {
+        BigDecimal amount = BigDecimal.valueOf(unscaled, scale).setScale(scale + trailingZeros);
+
+        Money money = Money.of(amount, Money.EUR);
+
+        assertEquals(0, amount.compareTo(money.toBigDecimal()));
+        assertEquals(amount.movePointRight(Money.SCALE).longValueExact(), money.getMinorUnits());
+    }
+
+    @Property
+    void conversion_RejectsSubMinorUnits(@ForAll @LongRange(min = -MAX_COLUMN, max = MAX_COLUMN) long unscaled,
+                                         @ForAll @IntRange(min = 3, max = 6) int scale) {
+        BigDecimal amount = BigDecimal.valueOf(unscaled, scale);
+        boolean exact = amount.stripTrailingZeros().scale() <= Money.SCALE;
+
+        if (exact) {
+            assertEquals(0, amount.compareTo(Money.of(amount, Money.EUR).toBigDecimal()));
+        } else {
+            assertThrows(IllegalArgumentException.class, () -> Money.of(amount, Money.EUR));
+        }
+    }
+
+    @Property
+    void arithmetic_MatchesBigDecimal(@ForAll @LongRange(min = -MAX_COLUMN, max = MAX_COLUMN) long a,
+                                      @ForAll @LongRange(min = -MAX_COLUMN, max = MAX_COLUMN) long b) {
+        Money x = Money.ofMinor(a, Money.EUR);
+        Money y = Money.ofMinor(b, Money.EUR);
+        BigDecimal bx = BigDecimal.valueOf(a, Money.SCALE);
+        BigDecimal by = BigDecimal.valueOf(b, Money.SCALE);
+
+        assertEquals(bx.add(by), x.plus(y).toBigDecimal());
+        assertEquals(bx.subtract(by), x.minus(y).toBigDecimal());
+        assertEquals(bx.compareTo(by), x.compareTo(y));
+        assertEquals(bx.compareTo(by) > 0, x.isGreaterThan(y));
+        assertEquals(bx.compareTo(by) < 0, x.isLessThan(y));
+        assertEquals(bx.signum(), x.signum());
+        assertEquals(bx.signum() > 0, x.isPositive());
+    }
+
+    @Property
+    void equality_MatchesNumericEqualityWithinCurrency(@ForAll @LongRange(min = -1000, max = 1000) long a,
+                                                       @ForAll @LongRange(min = -1000, max = 1000) long b) {
+        Money x = Money.ofMinor(a, Money.EUR);
+        Money y = Money.ofMinor(b, Money.EUR);
+
+        assertEquals(a == b, x.equals(y));
+        if (a == b) {
+            assertEquals(x.hashCode(), y.hashCode());
+        }
+        assertNotEquals(x, Money.ofMinor(a, "USD"));
+    }
+
+    @Property
+    void arithmetic_ThrowsInsteadOfOverflowing(@ForAll long a, @ForAll long b) {
+        Money x = Money.ofMinor(a, Money.EUR);
+        Money y = Money.ofMinor(b, Money.EUR);
+        BigDecimal sum = BigDecimal.valueOf(a).add(BigDecimal.valueOf(b));
+
+        if (sum.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 || sum.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            assertThrows(ArithmeticException.class, () -> x.plus(y));
+        } else {
+            assertEquals(sum.longValueExact(), x.plus(y).getMinorUnits());
+        }
+    }
+
+    @Example
+    void mixingCurrencies_Rejected() {
+        Money eur = Money.ofMinor(100, Money.EUR);
+        Money usd = Money.ofMinor(100, "USD");
+
+        assertThrows(IllegalArgumentException.class, () -> eur.plus(usd));
+        assertThrows(IllegalArgumentException.class, () -> eur.isGreaterThan(usd));
+    }
+
+    @Example
+    void toString_PlainAmountAndCurrency() {
+        assertEquals("-0.05 EUR", Money.ofMinor(-5, Money.EUR).toString());
+        assertEquals("15000.00 EUR", Money.of(new BigDecimal("15000"), Money.EUR).toString());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.banking.security;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.exception.InvalidJwtException;
+import com.example.banking.metrics.BankingMetrics;
+import com.example.banking.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthTokenFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private HandlerExceptionResolver resolver;
+
+    @InjectMocks
+    private TokenRevocationChecker revocationChecker;
+
+    private JwtUtils jwtUtils;
+
+    private AuthTokenFilter filter;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "yourbase64encodedsecretkeyyourbase64encodedsecretkey");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 900000);
+        jwtUtils.init();
+        ReflectionTestUtils.setField(revocationChecker, "revocationCheckTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(revocationChecker, "cacheManager",
+                new ConcurrentMapCacheManager(CacheConfig.TOKEN_REVOCATION_CACHE));
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "revocationChecker", revocationChecker);
+        ReflectionTestUtils.setField(filter, "resolver", resolver);
+        ReflectionTestUtils.setField(filter, "metrics", new BankingMetrics(new SimpleMeterRegistry()));
+
+        UserPrincipal user = new UserPrincipal("1", "bob", "password1", "customer");
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_BuildsPrincipalFromClaimsWithoutDatabase() throws Exception {
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertEquals("1", principal.getId());
+        assertEquals("bob", principal.getUsername());
+        assertEquals("customer", principal.getRole());
+        assertNull(principal.getPassword());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testDoFilter_RevocationCheckCachedForTtl() throws Exception {
+        ReflectionTestUtils.setField(revocationChecker, "revocationCheckTtl", Duration.ofMinutes(1));
+        when(userRepository.existsByUsername("bob")).thenReturn(true);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userRepository, times(1)).existsByUsername("bob");
+    }
+
+    @Test
+    void testDoFilter_RevokedUserRejected() throws Exception {
+        ReflectionTestUtils.setField(revocationChecker, "revocationCheckTtl", Duration.ofMinutes(1));
+        when(userRepository.existsByUsername("bob")).thenReturn(false);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(resolver).resolveException(any(), any(), isNull(), any(InvalidJwtException.class));
+    }
+
+    private static MockHttpServletRequest request(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customer/accounts");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.banking.security;
+
+import com.example.banking.exception.InvalidJwtException;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(900000);
+    }
+
+    @Test
+    void testParseAndValidate_Success() {
+        String token = jwtUtils.generateJwtToken(authentication("testUser"));
+
+        Claims claims = jwtUtils.parseAndValidate(token);
+
+        assertEquals("testUser", claims.getSubject());
+        assertNotNull(claims.getExpiration());
+    }
+
+    @Test
+    void testParseAndValidate_TamperedSignature() {
+        String token = jwtUtils.generateJwtToken(authentication("testUser"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        Exception exception = assertThrows(InvalidJwtException.class, () -> jwtUtils.parseAndValidate(tampered));
+        assertEquals("Invalid JWT signature", exception.getMessage());
+    }
+
+    @Test
+    void testParseAndValidate_Expired() {
+        String token = newJwtUtils(-1000).generateJwtToken(authentication("testUser"));
+
+        Exception exception = assertThrows(InvalidJwtException.class, () -> jwtUtils.parseAndValidate(token));
+        assertEquals("JWT token is expired", exception.getMessage());
+    }
+
+    @Test
+    void testParseAndValidate_Malformed() {
+        Exception exception = assertThrows(InvalidJwtException.class, () -> jwtUtils.parseAndValidate("not-a-jwt"));
+        assertEquals("Invalid JWT token", exception.getMessage());
+    }
+
+    private static JwtUtils newJwtUtils(int expirationMs) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", "yourbase64encodedsecretkeyyourbase64encodedsecretkey");
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        utils.init();
+        return utils;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String username) {
+        User user = new User(username, "password", List.of(new SimpleGrantedAuthority("customer")));
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
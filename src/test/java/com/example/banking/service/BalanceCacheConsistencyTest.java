@@ -0,0 +1,143 @@
+package com.example.banking.service;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.models.BalanceSnapshot;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.AccountBalanceCache;
+import com.example.banking.services.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs transfers and balance reads concurrently with the balance cache enabled and checks that,
+ * once the writers finish, the cache holds exactly the committed balances.
+ */
+@SpringBootTest(properties = {
+        "banking.cache.balances.enabled=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DirtiesContext
+public class BalanceCacheConsistencyTest {
+
+    private static final int TRANSFERS = 400;
+    private static final int READS = 2000;
+
+    private static final String BOB_REGULAR_1 = "121212121";
+    private static final String BOB_REGULAR_2 = "444444444";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountBalanceCache balanceCache;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testConcurrentTransfersAndReads_CacheMatchesDatabase() throws Exception {
+        authenticate();
+        customerService.getCustomerAccountList();
+        double hitsBefore = balanceHits();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>(TRANSFERS + READS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            // Large amounts on alternate directions make some transfers fail and roll back.
+            String from = i % 2 == 0 ? BOB_REGULAR_1 : BOB_REGULAR_2;
+            String to = i % 2 == 0 ? BOB_REGULAR_2 : BOB_REGULAR_1;
+            BigDecimal amount = new BigDecimal(i % 3 == 0 ? "9000.00" : "1.25");
+            futures.add(executor.submit(() -> {
+                authenticate();
+                try {
+                    customerService.transferAmount(transferRequest(from, to, amount));
+                } catch (InvalidTransactionException e) {
+                    // Rejected transfers roll back and must not reach the cache.
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (int i = 0; i < READS; i++) {
+            futures.add(executor.submit(() -> {
+                authenticate();
+                try {
+                    for (AccountResponse account : customerService.getCustomerAccountList()) {
+                        assertTrue(account.getBalance().signum() >= 0);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Map<String, BigDecimal> committed = accountRepository.findBalanceSnapshotsByUsername("bob").stream()
+                .collect(Collectors.toMap(BalanceSnapshot::getAccountNo, BalanceSnapshot::getBalance));
+        List<AccountResponse> cached = balanceCache.getAccounts("bob");
+        assertNotNull(cached);
+        assertEquals(committed.size(), cached.size());
+        for (AccountResponse account : cached) {
+            assertEquals(0, committed.get(account.getAccountNo()).compareTo(account.getBalance()), account.getAccountNo());
+        }
+        assertTrue(balanceHits() > hitsBefore);
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+    }
+
+    private double balanceHits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.BALANCES_CACHE)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+    private static TransactionRequest transferRequest(String from, String to, BigDecimal amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(from);
+        request.setToAccountNo(to);
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.banking.service;
+
+import com.example.banking.models.TransactionType;
+import com.example.banking.payload.request.BatchMode;
+import com.example.banking.payload.request.BatchOperation;
+import com.example.banking.payload.request.BatchTransactionRequest;
+import com.example.banking.payload.response.BatchTransactionResponse;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.LedgerEntryRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext
+public class BatchTransactionTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testApplyBatch_PersistsBalancesAndLedger() {
+        BigDecimal before = balance("121212121");
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            operations.add(operation(TransactionType.DEPOSIT, null, "121212121", "10.00"));
+        }
+        operations.add(operation(TransactionType.TRANSFER, "121212121", "717171717", "500.00"));
+
+        BatchTransactionResponse response = customerService.applyBatch(request(BatchMode.ALL_OR_NOTHING, operations));
+
+        assertEquals(101, response.getApplied());
+        assertEquals(0, before.add(new BigDecimal("500.00")).compareTo(balance("121212121")));
+        assertEquals(101, ledgerEntryRepository.findLatest("121212121", Limit.of(1000)).size());
+        assertEquals(1, ledgerEntryRepository.findLatest("717171717", Limit.of(1000)).size());
+    }
+
+    @Test
+    void testApplyBatch_AllOrNothing_LeavesBalancesUntouched() {
+        BigDecimal before = balance("444444444");
+
+        BatchTransactionResponse response = customerService.applyBatch(request(BatchMode.ALL_OR_NOTHING, List.of(
+                operation(TransactionType.DEPOSIT, null, "444444444", "10.00"),
+                operation(TransactionType.WITHDRAW, "343434343", null, "10.00"))));
+
+        assertEquals(0, response.getApplied());
+        assertEquals(0, before.compareTo(balance("444444444")));
+    }
+
+    private BigDecimal balance(String accountNo) {
+        return accountRepository.findByAccountNo(accountNo).orElseThrow().getBalance();
+    }
+
+    private static BatchTransactionRequest request(BatchMode mode, List<BatchOperation> operations) {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setMode(mode);
+        request.setOperations(operations);
+        return request;
+    }
+
+    private static BatchOperation operation(TransactionType type, String from, String to, String amount) {
+        BatchOperation operation = new BatchOperation();
+        operation.setType(type);
+        operation.setFromAccountNo(from);
+        operation.setToAccountNo(to);
+        operation.setAmount(new BigDecimal(amount));
+        return operation;
+    }
+}
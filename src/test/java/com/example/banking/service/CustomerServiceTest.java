@@ -1,34 +1,68 @@
 package com.example.banking.service;
 
+import com.example.banking.events.AccountBalanceChangedEvent;
 import com.example.banking.exception.InvalidTransactionException;
 import com.example.banking.exception.ResourceNotFoundException;
 import com.example.banking.models.Account;
 import com.example.banking.models.AccountType;
+import com.example.banking.models.BalanceSnapshot;
 import com.example.banking.models.Customer;
+import com.example.banking.models.EntryDirection;
+import com.example.banking.models.TransactionType;
 import com.example.banking.models.User;
+import com.example.banking.payload.request.BatchMode;
+import com.example.banking.payload.request.BatchOperation;
+import com.example.banking.payload.request.BatchTransactionRequest;
 import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.AccountResponse;
+import com.example.banking.payload.response.BatchItemStatus;
+import com.example.banking.payload.response.BatchTransactionResponse;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.repository.AccountBalanceRepository;
 import com.example.banking.repository.AccountRepository;
 import com.example.banking.repository.CustomerRepository;
 import com.example.banking.repository.UserRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.AccountBalanceCache;
 import com.example.banking.services.CustomerService;
+import com.example.banking.services.LedgerService;
+import com.example.banking.services.TransactionRuleEngine;
+import com.example.banking.services.TransactionRuleSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +77,24 @@ public class CustomerServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AccountBalanceCache balanceCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TransactionRuleEngine ruleEngine = new TransactionRuleEngine(new SimpleMeterRegistry());
+
     @Mock
     private Authentication authentication;
 
@@ -57,8 +109,9 @@ public class CustomerServiceTest {
     private Account mockAccount;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
         MockitoAnnotations.openMocks(this);
+        ruleEngine.update(TransactionRuleSet.load(new ClassPathResource("transaction-rules.properties")));
 
         mockUser = new User();
         mockUser.setUsername("testUser");
@@ -75,40 +128,97 @@ public class CustomerServiceTest {
         mockAccount.setCurrency("EUR");
 
         lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
-        lenient().when(authentication.getPrincipal()).thenReturn(Optional.of(mockUser));
+        lenient().when(authentication.getPrincipal()).thenReturn(new UserPrincipal("1", "testUser", "customer"));
         SecurityContextHolder.setContext(securityContext);
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
 
     @Test
     void testGetCustomerAccountList_Success() throws ResourceNotFoundException {
-        List<Account> accounts = new ArrayList<>();
-        accounts.add(mockAccount);
-        mockCustomer.setAccounts(accounts);
-        when(customerRepository.findCustomerAccounts("testUser")).thenReturn(Optional.of(mockCustomer));
+        AccountResponse summary = new AccountResponse("2222311344", AccountType.REGULAR, new BigDecimal("1000.00"), "EUR");
+        when(accountRepository.findAccountSummariesByUsername("testUser")).thenReturn(List.of(summary));
 
-        List<Account> customerAccounts = customerService.getCustomerAccountList();
+        List<AccountResponse> customerAccounts = customerService.getCustomerAccountList();
         assertNotNull(customerAccounts);
         assertEquals("2222311344", customerAccounts.get(0).getAccountNo());
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void testGetCustomerAccountList_NoAccounts() {
+        when(accountRepository.findAccountSummariesByUsername("testUser")).thenReturn(List.of());
+        when(customerRepository.existsByUserUsername("testUser")).thenReturn(true);
+
+        assertTrue(customerService.getCustomerAccountList().isEmpty());
     }
 
     @Test
     void testGetCustomerAccountList_CustomerNotFound() {
-        when(customerRepository.findCustomerAccounts("testUser")).thenReturn(Optional.empty());
+        when(accountRepository.findAccountSummariesByUsername("testUser")).thenReturn(List.of());
+        when(customerRepository.existsByUserUsername("testUser")).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> customerService.getCustomerAccountList());
     }
 
+    @Test
+    void testGetCustomerAccountList_ServedFromBalanceCache() {
+        AccountResponse summary = new AccountResponse("2222311344", AccountType.REGULAR, new BigDecimal("1000.00"), "EUR");
+        when(balanceCache.isEnabled()).thenReturn(true);
+        when(balanceCache.getAccounts("testUser")).thenReturn(List.of(summary));
+
+        assertEquals(List.of(summary), customerService.getCustomerAccountList());
+        verifyNoInteractions(accountRepository, customerRepository);
+    }
+
+    @Test
+    void testGetCustomerAccountList_BalanceCacheMissFallsBackToDatabase() {
+        BalanceSnapshot snapshot = new BalanceSnapshot("2222311344", AccountType.REGULAR, new BigDecimal("1000.00"), "EUR", 3);
+        when(balanceCache.isEnabled()).thenReturn(true);
+        when(balanceCache.getAccounts("testUser")).thenReturn(null);
+        when(accountRepository.findBalanceSnapshotsByUsername("testUser")).thenReturn(List.of(snapshot));
+
+        List<AccountResponse> accounts = customerService.getCustomerAccountList();
+
+        assertEquals("2222311344", accounts.get(0).getAccountNo());
+        verify(balanceCache).putAccounts("testUser", List.of(snapshot));
+    }
+
     @Test
     void testDepositAmount_Success() {
         TransactionRequest depositRequest = new TransactionRequest();
         depositRequest.setToAccountNo("2222311344");
         depositRequest.setAmount(new BigDecimal("500.00"));
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        when(accountRepository.findWithOwnerByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        stubBalanceUpdates(mockAccount);
 
         Account updatedAccount = customerService.depositAmount(depositRequest);
         assertEquals(new BigDecimal("1500.00"), updatedAccount.getBalance());
+        verify(ledgerService).record(eq(mockAccount), eq(new BigDecimal("500.00")), eq(EntryDirection.CREDIT), isNull(), any());
+    }
+
+    @Test
+    void testDepositAmount_PublishesCommittedBalance() {
+        TransactionRequest depositRequest = new TransactionRequest();
+        depositRequest.setToAccountNo("2222311344");
+        depositRequest.setAmount(new BigDecimal("500.00"));
+        mockAccount.setVersion(7);
+
+        when(accountRepository.findWithOwnerByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        stubBalanceUpdates(mockAccount);
+
+        customerService.depositAmount(depositRequest);
+
+        ArgumentCaptor<AccountBalanceChangedEvent> event = ArgumentCaptor.forClass(AccountBalanceChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        BalanceSnapshot snapshot = event.getValue().getSnapshots().get(0);
+        assertEquals(new BigDecimal("1500.00"), snapshot.getBalance());
+        assertEquals(8, snapshot.getVersion());
     }
 
     @Test
@@ -116,7 +226,7 @@ public class CustomerServiceTest {
         TransactionRequest depositRequest = new TransactionRequest();
         depositRequest.setToAccountNo("64345825"); // Non-existing account
 
-        when(accountRepository.findByAccountNo("64345825")).thenReturn(Optional.empty());
+        when(accountRepository.findWithOwnerByAccountNo("64345825")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> customerService.depositAmount(depositRequest));
     }
@@ -127,7 +237,8 @@ public class CustomerServiceTest {
         withdrawRequest.setFromAccountNo("2222311344");
         withdrawRequest.setAmount(new BigDecimal("200.00"));
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        when(accountRepository.findWithOwnerByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        stubBalanceUpdates(mockAccount);
 
         Account updatedAccount = customerService.withdrawAmount(withdrawRequest);
         assertEquals(new BigDecimal("800.00"), updatedAccount.getBalance());
@@ -139,9 +250,11 @@ public class CustomerServiceTest {
         withdrawRequest.setFromAccountNo("2222311344");
         withdrawRequest.setAmount(new BigDecimal("2000.00")); // More than balance
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        when(accountRepository.findWithOwnerByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        stubBalanceUpdates(mockAccount);
 
         assertThrows(InvalidTransactionException.class, () -> customerService.withdrawAmount(withdrawRequest));
+        verifyNoInteractions(ledgerService);
     }
 
     @Test
@@ -152,20 +265,24 @@ public class CustomerServiceTest {
         receiverAccount.setCustomer(mockCustomer);
         receiverAccount.setBalance(new BigDecimal("500.00"));
         receiverAccount.setAccountType(AccountType.SAVING);
+        receiverAccount.setCurrency("EUR");
 
         TransactionRequest transferRequest = new TransactionRequest();
         transferRequest.setFromAccountNo("2222311344");
         transferRequest.setToAccountNo("111684447");
         transferRequest.setAmount(new BigDecimal("200.00"));
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
-        when(accountRepository.findByAccountNo("111684447")).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAllWithOwnerByAccountNoIn(List.of("2222311344", "111684447")))
+                .thenReturn(List.of(mockAccount, receiverAccount));
+        stubBalanceUpdates(mockAccount, receiverAccount);
 
         BigDecimal transferredAmount = customerService.transferAmount(transferRequest);
 
         assertEquals(new BigDecimal("800.00"), mockAccount.getBalance());
         assertEquals(new BigDecimal("700.00"), receiverAccount.getBalance());
         assertEquals(new BigDecimal("200.00"), transferredAmount);
+        verify(ledgerService).record(eq(mockAccount), eq(new BigDecimal("200.00")), eq(EntryDirection.DEBIT), eq("111684447"), any());
+        verify(ledgerService).record(eq(receiverAccount), eq(new BigDecimal("200.00")), eq(EntryDirection.CREDIT), eq("2222311344"), any());
     }
 
     @Test
@@ -183,14 +300,16 @@ public class CustomerServiceTest {
         receiverAccount.setCustomer(customer);
         receiverAccount.setBalance(new BigDecimal("500.00"));
         receiverAccount.setAccountType(AccountType.SAVING);
+        receiverAccount.setCurrency("EUR");
 
         TransactionRequest transferRequest = new TransactionRequest();
         transferRequest.setFromAccountNo("2222311344");
         transferRequest.setToAccountNo("333684447");
         transferRequest.setAmount(new BigDecimal("200.00"));
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
-        when(accountRepository.findByAccountNo("333684447")).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAllWithOwnerByAccountNoIn(List.of("2222311344", "333684447")))
+                .thenReturn(List.of(mockAccount, receiverAccount));
+        stubBalanceUpdates(mockAccount, receiverAccount);
 
         BigDecimal transferredAmount = customerService.transferAmount(transferRequest);
 
@@ -207,14 +326,16 @@ public class CustomerServiceTest {
         senderAccount.setCustomer(mockCustomer);
         senderAccount.setBalance(new BigDecimal("500.00"));
         senderAccount.setAccountType(AccountType.SAVING);
+        senderAccount.setCurrency("EUR");
 
         TransactionRequest transferRequest = new TransactionRequest();
         transferRequest.setFromAccountNo("111684447");
         transferRequest.setToAccountNo("2222311344");
         transferRequest.setAmount(new BigDecimal("200.00"));
 
-        when(accountRepository.findByAccountNo("111684447")).thenReturn(Optional.of(senderAccount));
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
+        when(accountRepository.findAllWithOwnerByAccountNoIn(List.of("111684447", "2222311344")))
+                .thenReturn(List.of(senderAccount, mockAccount));
+        stubBalanceUpdates(senderAccount, mockAccount);
 
         Exception exception = assertThrows(InvalidTransactionException.class, () -> customerService.transferAmount(transferRequest));
         assertEquals("Transfer not allowed: Transfers from a savings account are not permitted", exception.getMessage());
@@ -229,16 +350,159 @@ public class CustomerServiceTest {
         receiverAccount.setCustomer(mockCustomer);
         receiverAccount.setBalance(new BigDecimal("500.00"));
         receiverAccount.setAccountType(AccountType.SAVING);
+        receiverAccount.setCurrency("EUR");
 
         TransactionRequest transferRequest = new TransactionRequest();
         transferRequest.setFromAccountNo("2222311344");
         transferRequest.setToAccountNo("111684447");
         transferRequest.setAmount(new BigDecimal("2000.00")); // More than balance
 
-        when(accountRepository.findByAccountNo("2222311344")).thenReturn(Optional.of(mockAccount));
-        when(accountRepository.findByAccountNo("111684447")).thenReturn(Optional.of(receiverAccount));
+        when(accountRepository.findAllWithOwnerByAccountNoIn(List.of("2222311344", "111684447")))
+                .thenReturn(List.of(mockAccount, receiverAccount));
+        stubBalanceUpdates(mockAccount, receiverAccount);
 
         assertThrows(InvalidTransactionException.class, () -> customerService.transferAmount(transferRequest));
     }
 
+    @Test
+    void testTransferAmount_UpdatesAccountsInAccountNumberOrder() {
+        Account receiverAccount = new Account();
+        receiverAccount.setAccountNo("111684447");
+        receiverAccount.setCustomer(mockCustomer);
+        receiverAccount.setBalance(new BigDecimal("500.00"));
+        receiverAccount.setAccountType(AccountType.SAVING);
+        receiverAccount.setCurrency("EUR");
+
+        TransactionRequest transferRequest = new TransactionRequest();
+        transferRequest.setFromAccountNo("2222311344");
+        transferRequest.setToAccountNo("111684447");
+        transferRequest.setAmount(new BigDecimal("200.00"));
+
+        when(accountRepository.findAllWithOwnerByAccountNoIn(List.of("2222311344", "111684447")))
+                .thenReturn(List.of(mockAccount, receiverAccount));
+        stubBalanceUpdates(mockAccount, receiverAccount);
+
+        customerService.transferAmount(transferRequest);
+
+        InOrder updateOrder = inOrder(accountBalanceRepository);
+        updateOrder.verify(accountBalanceRepository).credit("111684447", new BigDecimal("200.00"));
+        updateOrder.verify(accountBalanceRepository).debit("2222311344", new BigDecimal("200.00"));
+    }
+
+    @Test
+    void testGetTransactionHistory_Success() {
+        TransactionHistoryResponse history = new TransactionHistoryResponse(List.of(), null);
+        when(accountRepository.findOwnerUsernameByAccountNo("2222311344")).thenReturn(Optional.of("testUser"));
+        when(ledgerService.getHistory("2222311344", null, 20)).thenReturn(history);
+
+        assertSame(history, customerService.getTransactionHistory("2222311344", null, 20));
+    }
+
+    @Test
+    void testGetTransactionHistory_OtherCustomerAccount() {
+        when(accountRepository.findOwnerUsernameByAccountNo("2222311344")).thenReturn(Optional.of("user"));
+
+        assertThrows(InvalidTransactionException.class, () -> customerService.getTransactionHistory("2222311344", null, 20));
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void testGetTransactionHistory_AccountNotFound() {
+        when(accountRepository.findOwnerUsernameByAccountNo("2222311344")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> customerService.getTransactionHistory("2222311344", null, 20));
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void testApplyBatch_BestEffort_AppliesValidOperations() {
+        Account savingAccount = new Account();
+        savingAccount.setAccountNo("111684447");
+        savingAccount.setCustomer(mockCustomer);
+        savingAccount.setBalance(new BigDecimal("500.00"));
+        savingAccount.setAccountType(AccountType.SAVING);
+        savingAccount.setCurrency("EUR");
+        when(accountRepository.findAllByAccountNoInForUpdate(any())).thenReturn(List.of(mockAccount, savingAccount));
+
+        BatchTransactionRequest batchRequest = batchRequest(BatchMode.BEST_EFFORT,
+                batchOperation(TransactionType.DEPOSIT, null, "2222311344", "100.00"),
+                batchOperation(TransactionType.WITHDRAW, "111684447", null, "50.00"),
+                batchOperation(TransactionType.TRANSFER, "2222311344", "111684447", "1000.00"),
+                batchOperation(TransactionType.WITHDRAW, "2222311344", null, "50.00"));
+
+        BatchTransactionResponse response = customerService.applyBatch(batchRequest);
+
+        assertEquals(3, response.getApplied());
+        assertEquals(1, response.getRejected());
+        assertEquals(BatchItemStatus.REJECTED, response.getResults().get(1).getStatus());
+        assertEquals("Withdrawal denied: Not permitted from savings account", response.getResults().get(1).getMessage());
+        // Net result: 1000 + 100 - 1000 - 50 on the regular account, 500 + 1000 on the savings account.
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE account SET balance = ?, version = version + 1 WHERE account_no = ?"), updates.capture());
+        Map<Object, Object> balances = new HashMap<>();
+        updates.getValue().forEach(update -> balances.put(update[1], update[0]));
+        assertEquals(new BigDecimal("50.00"), balances.get("2222311344"));
+        assertEquals(new BigDecimal("1500.00"), balances.get("111684447"));
+        // Entities are left untouched; balances are written through the JDBC batch only.
+        assertEquals(new BigDecimal("1000.00"), mockAccount.getBalance());
+        verify(ledgerService).recordAll(argThat(entries -> entries.size() == 4));
+    }
+
+    @Test
+    void testApplyBatch_AllOrNothing_RejectsWholeBatch() {
+        when(accountRepository.findAllByAccountNoInForUpdate(any())).thenReturn(List.of(mockAccount));
+
+        BatchTransactionRequest batchRequest = batchRequest(BatchMode.ALL_OR_NOTHING,
+                batchOperation(TransactionType.DEPOSIT, null, "2222311344", "100.00"),
+                batchOperation(TransactionType.WITHDRAW, "2222311344", null, "5000.00"),
+                batchOperation(TransactionType.DEPOSIT, null, "64345825", "10.00"));
+
+        BatchTransactionResponse response = customerService.applyBatch(batchRequest);
+
+        assertEquals(0, response.getApplied());
+        assertEquals(2, response.getRejected());
+        assertEquals(BatchItemStatus.SKIPPED, response.getResults().get(0).getStatus());
+        assertEquals("Insufficient funds", response.getResults().get(1).getMessage());
+        assertEquals("Account not found", response.getResults().get(2).getMessage());
+        verifyNoInteractions(jdbcTemplate, ledgerService);
+    }
+
+    /**
+     * Answers the conditional balance updates the way the database does: a debit matches no row when the
+     * balance is lower than the amount.
+     */
+    private void stubBalanceUpdates(Account... accounts) {
+        for (Account account : accounts) {
+            lenient().when(accountBalanceRepository.debit(eq(account.getAccountNo()), any())).thenAnswer(invocation -> {
+                BigDecimal amount = invocation.getArgument(1);
+                return account.getBalance().compareTo(amount) < 0
+                        ? Optional.empty()
+                        : Optional.of(committed(account, account.getBalance().subtract(amount)));
+            });
+            lenient().when(accountBalanceRepository.credit(eq(account.getAccountNo()), any())).thenAnswer(invocation ->
+                    Optional.of(committed(account, account.getBalance().add(invocation.<BigDecimal>getArgument(1)))));
+        }
+    }
+
+    private static BalanceSnapshot committed(Account account, BigDecimal balance) {
+        return new BalanceSnapshot(account.getAccountNo(), account.getAccountType(), balance,
+                account.getCurrency(), account.getVersion() + 1);
+    }
+
+    private static BatchTransactionRequest batchRequest(BatchMode mode, BatchOperation... operations) {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setMode(mode);
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static BatchOperation batchOperation(TransactionType type, String from, String to, String amount) {
+        BatchOperation operation = new BatchOperation();
+        operation.setType(type);
+        operation.setFromAccountNo(from);
+        operation.setToAccountNo(to);
+        operation.setAmount(new BigDecimal(amount));
+        return operation;
+    }
+
 }
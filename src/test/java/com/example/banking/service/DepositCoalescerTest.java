@@ -0,0 +1,139 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.ServiceBusyException;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.DepositCoalescer;
+import com.example.banking.services.PartitionedAccountExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The window is widened so concurrent deposits reliably share batches on a slow build machine.
+ */
+@SpringBootTest(properties = {
+        "banking.deposit-coalescing.enabled=true",
+        "banking.deposit-coalescing.window=20ms",
+        "banking.deposit-coalescing.max-batch-size=50",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DirtiesContext
+public class DepositCoalescerTest {
+
+    private static final String BOB_REGULAR_1 = "121212121";
+
+    private static final UserPrincipal BOB = new UserPrincipal("1", "bob", "customer");
+
+    private static final UserPrincipal JOHN = new UserPrincipal("2", "john", "customer");
+
+    @Autowired
+    private PartitionedAccountExecutor executor;
+
+    @Autowired
+    private DepositCoalescer coalescer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testConcurrentDeposits_CoalescedWithoutLostUpdatesAndRejectedAlone() throws Exception {
+        Instant started = Instant.now();
+        BigDecimal before = balance();
+        int ledgerBefore = ledgerEntries();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            UserPrincipal caller = i % 10 == 0 ? JOHN : BOB;
+            futures.add(callers.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(caller, null, caller.getAuthorities()));
+                try {
+                    BigDecimal balance = executor.deposit(request("1.00")).getBalance();
+                    assertTrue(balance.compareTo(before) > 0);
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertEquals(40, rejected.get());
+        assertEquals(0, before.add(new BigDecimal("360.00")).compareTo(balance()));
+        assertEquals(ledgerBefore + 360, ledgerEntries());
+        // Every deposit of a batch records the balance after itself, not the batch total.
+        assertEquals(360, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT running_balance) FROM ledger_entry"
+                + " WHERE account_no = ? AND created_at >= ?", Integer.class, BOB_REGULAR_1, Timestamp.from(started)));
+
+        DistributionSummary batchSize = meterRegistry.get(DepositCoalescer.BATCH_SIZE_SUMMARY).summary();
+        assertEquals(400, (long) batchSize.totalAmount());
+        assertTrue(batchSize.count() < 400);
+        assertEquals(400, meterRegistry.get(DepositCoalescer.BATCH_WAIT_TIMER).timer().count());
+    }
+
+    @Test
+    void testSubmitAfterStop_RefusedAsBusy() {
+        coalescer.stop();
+        try {
+            assertThrows(ServiceBusyException.class, () -> coalescer.submit(request("1.00"), "bob"));
+        } finally {
+            coalescer.start();
+        }
+    }
+
+    private BigDecimal balance() {
+        return accountRepository.findByAccountNo(BOB_REGULAR_1).orElseThrow().getBalance();
+    }
+
+    private int ledgerEntries() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entry WHERE account_no = ?", Integer.class, BOB_REGULAR_1);
+    }
+
+    private static TransactionRequest request(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setToAccountNo(BOB_REGULAR_1);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.banking.service;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.exception.IdempotencyKeyReuseException;
+import com.example.banking.models.Account;
+import com.example.banking.models.TransactionType;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.GenericResponse;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import com.example.banking.services.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext
+public class IdempotencyServiceTest {
+
+    private static final String ACCOUNT_NO = "444444444";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicatesExecuteOnce() throws Exception {
+        BigDecimal before = balance();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                authenticateAsBob();
+                start.await();
+                return idempotencyService.execute("deposit-1", TransactionType.DEPOSIT, deposit("25.00"), () -> {
+                    executions.incrementAndGet();
+                    Account account = customerService.depositAmount(deposit("25.00"));
+                    return ResponseEntity.status(201).body(new GenericResponse<>("Deposit successful", account));
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<ResponseEntity<?>> future : futures) {
+            assertEquals(201, future.get(30, TimeUnit.SECONDS).getStatusCode().value());
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(0, before.add(new BigDecimal("25.00")).compareTo(balance()));
+    }
+
+    @Test
+    void testExecute_ReplaysPersistedResponseAfterCacheLoss() {
+        authenticateAsBob();
+        BigDecimal before = balance();
+
+        ResponseEntity<?> first = idempotencyService.execute("deposit-2", TransactionType.DEPOSIT, deposit("10.00"), () ->
+                ResponseEntity.status(201).body(new GenericResponse<>("Deposit successful",
+                        customerService.depositAmount(deposit("10.00")))));
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
+        ResponseEntity<?> retry = idempotencyService.execute("deposit-2", TransactionType.DEPOSIT, deposit("10.00"), () -> {
+            throw new AssertionError("must not execute twice");
+        });
+
+        assertEquals(201, first.getStatusCode().value());
+        assertEquals(201, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertTrue(((String) retry.getBody()).contains("\"accountNo\":\"" + ACCOUNT_NO + "\""));
+        assertEquals(0, before.add(new BigDecimal("10.00")).compareTo(balance()));
+    }
+
+    @Test
+    void testExecute_KeysAreScopedPerUser() {
+        authenticateAsBob();
+        idempotencyService.execute("shared-key", TransactionType.DEPOSIT, deposit("1.00"), () -> ResponseEntity.status(200).body("bob"));
+        UserPrincipal john = new UserPrincipal("2", "john", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(john, null, john.getAuthorities()));
+
+        ResponseEntity<?> response = idempotencyService.execute("shared-key", TransactionType.DEPOSIT, deposit("1.00"),
+                () -> ResponseEntity.status(200).body("john"));
+
+        assertEquals("john", response.getBody());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequestRejected() {
+        authenticateAsBob();
+        idempotencyService.execute("reused-key", TransactionType.DEPOSIT, deposit("5.00"), () -> ResponseEntity.status(201).body("deposit"));
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.execute("reused-key",
+                TransactionType.WITHDRAW, withdrawal("5.00"), () -> ResponseEntity.status(200).body("withdrawal")));
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.execute("reused-key",
+                TransactionType.DEPOSIT, deposit("50.00"), () -> ResponseEntity.status(201).body("larger deposit")));
+        // Also once the response is only in the table.
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_CACHE).clear();
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.execute("reused-key",
+                TransactionType.DEPOSIT, deposit("50.00"), () -> ResponseEntity.status(201).body("larger deposit")));
+        assertEquals("\"deposit\"", idempotencyService.execute("reused-key", TransactionType.DEPOSIT, deposit("5.00"), () -> {
+            throw new AssertionError("must not execute twice");
+        }).getBody());
+    }
+
+    private BigDecimal balance() {
+        return accountRepository.findByAccountNo(ACCOUNT_NO).orElseThrow().getBalance();
+    }
+
+    private static void authenticateAsBob() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+    }
+
+    private static TransactionRequest withdrawal(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(ACCOUNT_NO);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+
+    private static TransactionRequest deposit(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setToAccountNo(ACCOUNT_NO);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.banking.service;
+
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import com.example.banking.services.LedgerAppendLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The loader only polls once an hour here, so entries stay in the log until a restart picks them up, and
+ * the tiny segments make thirty deposits span several of them.
+ */
+@SpringBootTest(properties = {
+        "banking.ledger-log.enabled=true",
+        "banking.ledger-log.segment-size=1KB",
+        "banking.ledger-log.poll-interval=1h",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DirtiesContext
+public class LedgerAppendLogTest {
+
+    private static final String ACCOUNT_NO = "444444444";
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "ledger-log-test-" + UUID.randomUUID());
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LedgerAppendLog appendLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void logDirectory(DynamicPropertyRegistry registry) {
+        registry.add("banking.ledger-log.directory", DIRECTORY::toString);
+    }
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterAll
+    static void deleteLog() throws IOException {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+    }
+
+    @Test
+    void testDeposits_WrittenBehindAndLoadedExactlyOnceAcrossRestarts() throws Exception {
+        int ledgerBefore = ledgerEntries();
+        long lagBefore = lag();
+        BigDecimal balanceBefore = balance();
+
+        for (int i = 0; i < 30; i++) {
+            TransactionRequest deposit = new TransactionRequest();
+            deposit.setToAccountNo(ACCOUNT_NO);
+            deposit.setAmount(new BigDecimal("1.00"));
+            customerService.depositAmount(deposit);
+        }
+
+        // Balances commit synchronously; the ledger entries wait in the log.
+        assertEquals(0, balanceBefore.add(new BigDecimal("30.00")).compareTo(balance()));
+        assertEquals(lagBefore + 30, lag());
+        assertEquals(ledgerBefore, ledgerEntries());
+        assertTrue(segmentFiles() > 1);
+
+        appendLog.stop();
+        appendLog.start();
+        awaitLoaded();
+
+        assertEquals(ledgerBefore + lagBefore + 30, ledgerEntries());
+        assertEquals(1, segmentFiles());
+        assertEquals(0, balance().compareTo(jdbcTemplate.queryForObject("SELECT running_balance FROM ledger_entry"
+                + " WHERE account_no = ? ORDER BY created_at DESC, id DESC LIMIT 1", BigDecimal.class, ACCOUNT_NO)));
+
+        appendLog.stop();
+        appendLog.start();
+        Thread.sleep(200);
+
+        assertEquals(0, lag());
+        assertEquals(ledgerBefore + lagBefore + 30, ledgerEntries());
+    }
+
+    @Test
+    void testOffset_KeyedByTheIdOfTheLogDirectory() throws Exception {
+        String logName = Files.readString(DIRECTORY.resolve("ledger.id")).trim();
+
+        assertTrue(logName.startsWith("ledger-"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_log_offset WHERE log_name = ?",
+                Integer.class, logName));
+
+        appendLog.stop();
+        appendLog.start();
+
+        assertEquals(logName, Files.readString(DIRECTORY.resolve("ledger.id")).trim());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_log_offset", Integer.class));
+    }
+
+    @Test
+    void testAppendFailure_InsertsEntriesDirectly() throws Exception {
+        int ledgerBefore = ledgerEntries();
+        long lagBefore = lag();
+        // A regular file in place of the directory: the next segment cannot be created.
+        Path notADirectory = Files.createTempFile("ledger-log-test", ".log");
+        ReflectionTestUtils.setField(appendLog, "logDirectory", notADirectory);
+        int deposits = 0;
+        try {
+            while (ledgerEntries() == ledgerBefore && deposits < 100) {
+                TransactionRequest deposit = new TransactionRequest();
+                deposit.setToAccountNo(ACCOUNT_NO);
+                deposit.setAmount(new BigDecimal("1.00"));
+                customerService.depositAmount(deposit);
+                deposits++;
+            }
+        } finally {
+            ReflectionTestUtils.setField(appendLog, "logDirectory", DIRECTORY);
+            Files.delete(notADirectory);
+        }
+
+        // Every deposit before the failing one went to the current segment, the failing one straight to the table.
+        assertEquals(ledgerBefore + 1, ledgerEntries());
+        assertEquals(lagBefore + deposits - 1, lag());
+        assertEquals(0, balance().compareTo(jdbcTemplate.queryForObject("SELECT running_balance FROM ledger_entry"
+                + " WHERE account_no = ? ORDER BY id DESC LIMIT 1", BigDecimal.class, ACCOUNT_NO)));
+    }
+
+    @Test
+    void testSegmentCleanupFailure_DoesNotLoadEntriesTwice() throws Exception {
+        drain();
+        int ledgerBefore = ledgerEntries();
+        long segmentsBefore = segmentFiles();
+        int deposits = 0;
+        while (segmentFiles() == segmentsBefore) {
+            TransactionRequest deposit = new TransactionRequest();
+            deposit.setToAccountNo(ACCOUNT_NO);
+            deposit.setAmount(new BigDecimal("1.00"));
+            customerService.depositAmount(deposit);
+            deposits++;
+        }
+
+        // The sealed segment loads (the last deposit opened the next segment, the seal counts as one), but it
+        // cannot be deleted and the next segment cannot be mapped.
+        Path notADirectory = Files.createTempFile("ledger-log-test", ".log");
+        ReflectionTestUtils.setField(appendLog, "logDirectory", notADirectory);
+        try {
+            assertEquals(Integer.valueOf(deposits), ReflectionTestUtils.invokeMethod(appendLog, "loadBatch"));
+            assertThrows(Exception.class, () -> ReflectionTestUtils.invokeMethod(appendLog, "loadBatch"));
+        } finally {
+            ReflectionTestUtils.setField(appendLog, "logDirectory", DIRECTORY);
+            Files.delete(notADirectory);
+        }
+        drain();
+
+        assertEquals(ledgerBefore + deposits, ledgerEntries());
+        assertEquals(0, lag());
+    }
+
+    /**
+     * Loads on the test thread; the loader itself only polls once an hour.
+     */
+    private void drain() {
+        Integer loaded;
+        do {
+            loaded = ReflectionTestUtils.invokeMethod(appendLog, "loadBatch");
+        } while (loaded != null && loaded > 0);
+    }
+
+    private void awaitLoaded() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (lag() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, lag());
+    }
+
+    private long lag() {
+        return (long) meterRegistry.get(LedgerAppendLog.LAG_GAUGE).gauge().value();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(DIRECTORY)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    private BigDecimal balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE account_no = ?", BigDecimal.class, ACCOUNT_NO);
+    }
+
+    private int ledgerEntries() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entry WHERE account_no = ?", Integer.class, ACCOUNT_NO);
+    }
+}
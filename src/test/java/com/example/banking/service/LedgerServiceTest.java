@@ -0,0 +1,81 @@
+package com.example.banking.service;
+
+import com.example.banking.models.EntryDirection;
+import com.example.banking.models.LedgerEntry;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.payload.response.TransactionHistoryResponse;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext
+public class LedgerServiceTest {
+
+    private static final String ACCOUNT_NO = "444444444";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testGetHistory_KeysetPagesNewestFirst() {
+        for (int i = 1; i <= 5; i++) {
+            TransactionRequest deposit = new TransactionRequest();
+            deposit.setToAccountNo(ACCOUNT_NO);
+            deposit.setAmount(new BigDecimal(i));
+            customerService.depositAmount(deposit);
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryResponse page = customerService.getTransactionHistory(ACCOUNT_NO, cursor, 2);
+            assertTrue(page.getTransactions().size() <= 2);
+            entries.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(5, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            LedgerEntry entry = entries.get(i);
+            assertEquals(EntryDirection.CREDIT, entry.getDirection());
+            assertEquals(0, new BigDecimal(5 - i).compareTo(entry.getAmount()));
+        }
+        assertEquals(0, new BigDecimal("10015.00").compareTo(entries.get(0).getRunningBalance()));
+        assertEquals(0, new BigDecimal("10001.00").compareTo(entries.get(4).getRunningBalance()));
+    }
+
+    @Test
+    void testGetHistory_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.getTransactionHistory(ACCOUNT_NO, "not-a-cursor", 2));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.models.OutboxEvent;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import com.example.banking.services.InMemoryOutboxSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two relay threads drain the same outbox, so an event claimed twice would show up twice in the sink.
+ * The test runs on its own database: re-initialising the shared one would restart the ledger id sequence
+ * under contexts that are still cached with ids drawn from it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "banking.outbox.enabled=true",
+        "banking.outbox.sink=memory",
+        "banking.outbox.relay-threads=2",
+        "banking.outbox.batch-size=5",
+        "banking.outbox.poll-interval=20ms"
+})
+@DirtiesContext
+public class OutboxRelayTest {
+
+    private static final String BOB_REGULAR_1 = "121212121";
+
+    private static final String BOB_REGULAR_2 = "444444444";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+        sink.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBalanceChanges_RelayedOnceWithCommittedState() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            customerService.depositAmount(request(null, BOB_REGULAR_1, "1.00"));
+        }
+        customerService.withdrawAmount(request(BOB_REGULAR_1, null, "2.00"));
+        customerService.transferAmount(request(BOB_REGULAR_1, BOB_REGULAR_2, "3.00"));
+
+        List<OutboxEvent> events = awaitEvents(13);
+
+        assertEquals(13, events.stream().map(OutboxEvent::getId).distinct().count());
+        OutboxEvent latest = events.stream()
+                .filter(event -> event.getAccountNo().equals(BOB_REGULAR_1))
+                .reduce((first, second) -> second.getVersion() > first.getVersion() ? second : first)
+                .orElseThrow();
+        assertEquals(OutboxEvent.BALANCE_CHANGED, latest.getEventType());
+        assertEquals(0, balance(BOB_REGULAR_1).compareTo(latest.getBalance()));
+        assertEquals(1, events.stream().filter(event -> event.getAccountNo().equals(BOB_REGULAR_2)).count());
+        assertEquals(0, outboxSize());
+    }
+
+    @Test
+    void testRejectedWithdrawal_WritesNoEvent() throws Exception {
+        assertThrows(InvalidTransactionException.class,
+                () -> customerService.withdrawAmount(request(BOB_REGULAR_1, null, "100000000.00")));
+        customerService.depositAmount(request(null, BOB_REGULAR_2, "1.00"));
+
+        List<OutboxEvent> events = awaitEvents(1);
+        Thread.sleep(100);
+
+        assertEquals(1, sink.getEvents().size());
+        assertEquals(BOB_REGULAR_2, events.get(0).getAccountNo());
+    }
+
+    private List<OutboxEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // The sink sees a batch just before the relay's delete commits.
+        while ((sink.getEvents().size() < count || outboxSize() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        List<OutboxEvent> events = sink.getEvents();
+        assertEquals(count, events.size());
+        return events;
+    }
+
+    private BigDecimal balance(String accountNo) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE account_no = ?", BigDecimal.class, accountNo);
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class);
+    }
+
+    private static TransactionRequest request(String from, String to, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(from);
+        request.setToAccountNo(to);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
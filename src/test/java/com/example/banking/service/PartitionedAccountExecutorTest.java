@@ -0,0 +1,312 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.RejectionReason;
+import com.example.banking.models.TransferHandoff;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransferHandoffRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.PartitionedAccountExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With four partitions Bob's 121212121 and 444444444 hash to different partitions, so transfers between
+ * them take the two-phase hand-off. John's 717171717 and Bob's 343434343 share a partition.
+ */
+@SpringBootTest(properties = {
+        "banking.partitioned.enabled=true",
+        "banking.partitioned.partitions=4",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DirtiesContext
+public class PartitionedAccountExecutorTest {
+
+    private static final String BOB_REGULAR_1 = "121212121";
+
+    private static final String BOB_REGULAR_2 = "444444444";
+
+    private static final String JOHN_REGULAR = "717171717";
+
+    private static final String BOB_SAVING = "343434343";
+
+    private static final UserPrincipal BOB = new UserPrincipal("1", "bob", "customer");
+
+    private static final UserPrincipal JOHN = new UserPrincipal("2", "john", "customer");
+
+    @Autowired
+    private PartitionedAccountExecutor executor;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransferHandoffRepository handoffRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        authenticate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testConcurrentOperations_AppliedWithoutLostUpdatesAndRejectedAlone() throws Exception {
+        BigDecimal before = balance(BOB_REGULAR_1);
+        int ledgerBefore = ledgerEntries(BOB_REGULAR_1);
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            boolean overdraw = i % 10 == 0;
+            futures.add(callers.submit(() -> {
+                authenticate();
+                try {
+                    if (overdraw) {
+                        executor.withdraw(request(BOB_REGULAR_1, null, "100000000.00"));
+                    } else {
+                        executor.deposit(request(null, BOB_REGULAR_1, "1.00"));
+                    }
+                } catch (InvalidTransactionException e) {
+                    assertEquals(RejectionReason.INSUFFICIENT_FUNDS, e.getReason());
+                    rejected.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertEquals(40, rejected.get());
+        assertEquals(0, before.add(new BigDecimal("360.00")).compareTo(balance(BOB_REGULAR_1)));
+        assertEquals(ledgerBefore + 360, ledgerEntries(BOB_REGULAR_1));
+    }
+
+    @Test
+    void testDatabaseFailure_RolledBackAloneWithoutFailingTheBatch() throws Exception {
+        BigDecimal before = balance(BOB_REGULAR_1);
+        int ledgerBefore = ledgerEntries(BOB_REGULAR_1);
+        AtomicInteger failed = new AtomicInteger();
+
+        // Large deposits break the constraint, so their UPDATE fails in the database rather than being rejected.
+        jdbcTemplate.execute("ALTER TABLE account ADD CONSTRAINT balance_cap CHECK (balance < 100000000)");
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String amount = i % 10 == 0 ? "100000000.00" : "1.00";
+                futures.add(callers.submit(() -> {
+                    authenticate();
+                    try {
+                        executor.deposit(request(null, BOB_REGULAR_1, amount));
+                    } catch (DataIntegrityViolationException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdown();
+            jdbcTemplate.execute("ALTER TABLE account DROP CONSTRAINT balance_cap");
+        }
+
+        assertEquals(20, failed.get());
+        assertEquals(0, before.add(new BigDecimal("180.00")).compareTo(balance(BOB_REGULAR_1)));
+        assertEquals(ledgerBefore + 180, ledgerEntries(BOB_REGULAR_1));
+    }
+
+    @Test
+    void testBatch_LocksRowsInTheOrderOfTransactionalTransfers() throws Exception {
+        BigDecimal totalBefore = balance(JOHN_REGULAR).add(balance(BOB_SAVING));
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int kind = i % 3;
+            futures.add(callers.submit(() -> {
+                authenticate(kind == 1 ? BOB : JOHN);
+                try {
+                    if (kind == 2) {
+                        // Inside a transaction the transfer takes the transactional path, which locks 343434343 first.
+                        transactionTemplate.executeWithoutResult(status ->
+                                executor.transfer(request(JOHN_REGULAR, BOB_SAVING, "1.00")));
+                    } else {
+                        // Both accounts share a partition, so one batch can deposit into 717171717 first.
+                        executor.deposit(request(null, kind == 0 ? JOHN_REGULAR : BOB_SAVING, "1.00"));
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        assertEquals(0, totalBefore.add(new BigDecimal("200.00")).compareTo(balance(JOHN_REGULAR).add(balance(BOB_SAVING))));
+    }
+
+    @Test
+    void testCrossPartitionTransfer_DebitsThenCreditsViaHandoff() {
+        BigDecimal senderBefore = balance(BOB_REGULAR_1);
+        BigDecimal receiverBefore = balance(BOB_REGULAR_2);
+
+        assertEquals(0, new BigDecimal("5.00").compareTo(executor.transfer(request(BOB_REGULAR_1, BOB_REGULAR_2, "5.00"))));
+
+        assertEquals(0, senderBefore.subtract(new BigDecimal("5.00")).compareTo(balance(BOB_REGULAR_1)));
+        assertEquals(0, receiverBefore.add(new BigDecimal("5.00")).compareTo(balance(BOB_REGULAR_2)));
+        assertEquals(0, handoffRepository.count());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entry WHERE account_no = ?"
+                + " AND direction = 'CREDIT' AND counterparty_account_no = ?", Integer.class, BOB_REGULAR_2, BOB_REGULAR_1));
+    }
+
+    @Test
+    void testCrossPartitionTransfer_FailedCreditRetriedNotReported() throws Exception {
+        BigDecimal senderBefore = balance(BOB_REGULAR_1);
+        BigDecimal receiverBefore = balance(BOB_REGULAR_2);
+
+        // Holds the receiver's row past the lock timeout, so the first credit fails after the debit committed.
+        try (Connection blocker = dataSource.getConnection()) {
+            blocker.setAutoCommit(false);
+            try (PreparedStatement lock = blocker.prepareStatement("SELECT balance FROM account WHERE account_no = ? FOR UPDATE")) {
+                lock.setString(1, BOB_REGULAR_2);
+                lock.executeQuery().close();
+            }
+
+            assertEquals(0, new BigDecimal("5.00").compareTo(executor.transfer(request(BOB_REGULAR_1, BOB_REGULAR_2, "5.00"))));
+            assertEquals(0, senderBefore.subtract(new BigDecimal("5.00")).compareTo(balance(BOB_REGULAR_1)));
+            assertEquals(1, handoffRepository.count());
+
+            blocker.rollback();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handoffRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, handoffRepository.count());
+        assertEquals(0, receiverBefore.add(new BigDecimal("5.00")).compareTo(balance(BOB_REGULAR_2)));
+    }
+
+    @Test
+    void testSamePartitionTransfer_InsufficientFundsRollsBackCredit() {
+        authenticate(JOHN);
+        // Leaves John 10.00, below the transfer but within the limit for another customer's account.
+        executor.withdraw(request(JOHN_REGULAR, null, balance(JOHN_REGULAR).subtract(new BigDecimal("10.00")).toPlainString()));
+        BigDecimal receiverBefore = balance(BOB_SAVING);
+        int ledgerBefore = ledgerEntries(BOB_SAVING);
+
+        // The receiver's account number sorts first, so the receiver is credited before the sender's debit fails.
+        InvalidTransactionException rejected = assertThrows(InvalidTransactionException.class,
+                () -> executor.transfer(request(JOHN_REGULAR, BOB_SAVING, "20.00")));
+
+        assertEquals(RejectionReason.INSUFFICIENT_FUNDS, rejected.getReason());
+        assertEquals(0, new BigDecimal("10.00").compareTo(balance(JOHN_REGULAR)));
+        assertEquals(0, receiverBefore.compareTo(balance(BOB_SAVING)));
+        assertEquals(ledgerBefore, ledgerEntries(BOB_SAVING));
+
+        assertEquals(0, new BigDecimal("5.00").compareTo(executor.transfer(request(JOHN_REGULAR, BOB_SAVING, "5.00"))));
+        assertEquals(0, receiverBefore.add(new BigDecimal("5.00")).compareTo(balance(BOB_SAVING)));
+    }
+
+    @Test
+    void testStart_ResumesPendingHandoff() throws Exception {
+        BigDecimal receiverBefore = balance(BOB_REGULAR_2);
+        executor.stop();
+        handoffRepository.save(new TransferHandoff(BOB_REGULAR_1, BOB_REGULAR_2, new BigDecimal("3.00"), Instant.now()));
+
+        executor.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handoffRepository.count() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, handoffRepository.count());
+        assertEquals(0, receiverBefore.add(new BigDecimal("3.00")).compareTo(balance(BOB_REGULAR_2)));
+    }
+
+    @Test
+    void testInsideTransaction_UsesCallersTransaction() {
+        BigDecimal before = balance(BOB_REGULAR_1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            executor.deposit(request(null, BOB_REGULAR_1, "7.00"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, before.compareTo(balance(BOB_REGULAR_1)));
+    }
+
+    private static void authenticate() {
+        authenticate(BOB);
+    }
+
+    private static void authenticate(UserPrincipal user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private BigDecimal balance(String accountNo) {
+        return accountRepository.findByAccountNo(accountNo).orElseThrow().getBalance();
+    }
+
+    private int ledgerEntries(String accountNo) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entry WHERE account_no = ?", Integer.class, accountNo);
+    }
+
+    private static TransactionRequest request(String from, String to, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(from);
+        request.setToAccountNo(to);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
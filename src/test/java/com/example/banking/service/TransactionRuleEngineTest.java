@@ -0,0 +1,167 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.exception.RejectionReason;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import com.example.banking.services.TransactionRuleEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The rules are read from a copy of the default file on disk, which the tests rewrite while the context runs.
+ * The test runs on its own database so its transfers do not disturb the balances other tests expect.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rules",
+        "banking.rules.reload-interval=50ms"
+})
+@DirtiesContext
+public class TransactionRuleEngineTest {
+
+    private static final Path RULES = Path.of(System.getProperty("java.io.tmpdir"), "transaction-rules-test-" + UUID.randomUUID() + ".properties");
+
+    // Per account type: the savings rules and both transfer limits.
+    private static final int DEFAULT_RULES = 6;
+
+    private static Instant modified = Instant.EPOCH;
+
+    private static final String BOB_REGULAR = "121212121";
+
+    private static final String JOHN_REGULAR = "717171717";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionRuleEngine ruleEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void rulesLocation(DynamicPropertyRegistry registry) throws IOException {
+        writeDefaultRules();
+        registry.add("banking.rules.location", () -> "file:" + RULES);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UserPrincipal bob = new UserPrincipal("1", "bob", "customer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bob, null, bob.getAuthorities()));
+        if (ruleEngine.getRules().size() != DEFAULT_RULES) {
+            // Counted before the write, since the reloader may pick up the file before the write returns.
+            double reloaded = reloads("success");
+            writeDefaultRules();
+            awaitReloads(reloaded + 1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterAll
+    static void deleteRules() throws IOException {
+        Files.deleteIfExists(RULES);
+    }
+
+    @Test
+    void testChangedRules_AppliedWithoutRestart() throws Exception {
+        customerService.transferAmount(transfer("200.00"));
+
+        double reloaded = reloads("success");
+        write("transfer.max-amount.other-customer=100\n");
+        awaitReloads(reloaded + 1);
+
+        InvalidTransactionException rejected = assertThrows(InvalidTransactionException.class,
+                () -> customerService.transferAmount(transfer("200.00")));
+        assertEquals(RejectionReason.LIMIT_EXCEEDED, rejected.getReason());
+        assertEquals("Limit exceeded: transfer cannot exceed 100.00 EUR", rejected.getMessage());
+        assertTrue(meterRegistry.get(TransactionRuleEngine.EVALUATION_TIMER).tag("operation", "transfer").timer().count() >= 2);
+    }
+
+    @Test
+    void testInvalidRules_KeepCurrentRules() throws Exception {
+        double failed = reloads("failure");
+        write("transfer.max-amount.other-customer=lots\n");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reloads("failure") <= failed && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(failed + 1, reloads("failure"));
+        assertEquals(DEFAULT_RULES, ruleEngine.getRules().size());
+        InvalidTransactionException rejected = assertThrows(InvalidTransactionException.class,
+                () -> customerService.transferAmount(transfer("15000.01")));
+        assertEquals(RejectionReason.LIMIT_EXCEEDED, rejected.getReason());
+    }
+
+    private void awaitReloads(double count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reloads("success") < count && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, reloads("success"));
+    }
+
+    private double reloads(String outcome) {
+        return meterRegistry.get(TransactionRuleEngine.RELOADS_COUNTER).tag("outcome", outcome).counter().count();
+    }
+
+    private static void writeDefaultRules() throws IOException {
+        try (InputStream in = new ClassPathResource("transaction-rules.properties").getInputStream()) {
+            write(new String(in.readAllBytes(), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * Replaces the file in one move, as a deployment should, so the reloader never reads a half-written file.
+     * Some file systems keep modification times in whole seconds, so each write moves the time on by at least one.
+     */
+    private static void write(String rules) throws IOException {
+        Path staged = Files.createTempFile(RULES.getParent(), "staged-rules", ".properties");
+        Files.writeString(staged, rules, StandardCharsets.ISO_8859_1);
+        Instant now = Instant.now();
+        modified = now.isAfter(modified.plusSeconds(1)) ? now : modified.plusSeconds(1);
+        Files.setLastModifiedTime(staged, FileTime.from(modified));
+        Files.move(staged, RULES, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static TransactionRequest transfer(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(BOB_REGULAR);
+        request.setToAccountNo(JOHN_REGULAR);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.RejectionReason;
+import com.example.banking.models.Account;
+import com.example.banking.models.AccountType;
+import com.example.banking.models.Customer;
+import com.example.banking.models.Money;
+import com.example.banking.models.TransactionType;
+import com.example.banking.services.TransactionRule;
+import com.example.banking.services.TransactionRuleSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRuleSetTest {
+
+    private Account regular;
+
+    private Account saving;
+
+    private Account ownAccount;
+
+    private Account otherCustomerAccount;
+
+    @BeforeEach
+    void setUp() {
+        Customer bob = customer("C1");
+        regular = account(bob, AccountType.REGULAR);
+        saving = account(bob, AccountType.SAVING);
+        ownAccount = account(bob, AccountType.SAVING);
+        otherCustomerAccount = account(customer("C2"), AccountType.REGULAR);
+    }
+
+    @Test
+    void testDefaultRules_MatchTheDocumentedLimits() throws IOException {
+        TransactionRuleSet rules = TransactionRuleSet.load(new ClassPathResource("transaction-rules.properties"));
+
+        assertNull(rules.firstViolation(TransactionType.TRANSFER, regular, ownAccount, eur("100000.00")));
+        assertEquals(RejectionReason.LIMIT_EXCEEDED,
+                rules.firstViolation(TransactionType.TRANSFER, regular, ownAccount, eur("100000.01")).getReason());
+        assertNull(rules.firstViolation(TransactionType.TRANSFER, regular, otherCustomerAccount, eur("15000.00")));
+        assertEquals("Transfer limit exceeded: Transfers to another customer's account cannot exceed 15,000 EUR",
+                rules.firstViolation(TransactionType.TRANSFER, regular, otherCustomerAccount, eur("15000.01")).getMessage());
+        assertEquals(RejectionReason.NOT_PERMITTED,
+                rules.firstViolation(TransactionType.WITHDRAW, saving, null, eur("1.00")).getReason());
+        assertNull(rules.firstViolation(TransactionType.WITHDRAW, regular, null, eur("1000000.00")));
+        assertNull(rules.firstViolation(TransactionType.DEPOSIT, saving, null, eur("1000000.00")));
+    }
+
+    @Test
+    void testChain_CheapestRejectsFirst() {
+        TransactionRuleSet rules = compile("""
+                transfer.max-amount.other-customer=15000
+                transfer.max-amount=50000
+                transfer.min-amount=1
+                transfer.regular.allowed=false
+                """);
+
+        List<TransactionRule.Kind> order = rules.chain(TransactionType.TRANSFER, AccountType.REGULAR).stream()
+                .map(TransactionRule::getKind)
+                .toList();
+
+        assertEquals(List.of(TransactionRule.Kind.NOT_ALLOWED, TransactionRule.Kind.MIN_AMOUNT,
+                TransactionRule.Kind.MAX_AMOUNT, TransactionRule.Kind.MAX_AMOUNT_OTHER_CUSTOMER), order);
+        // A blocked type is rejected before any amount is compared.
+        assertEquals(TransactionRule.Kind.NOT_ALLOWED,
+                rules.firstViolation(TransactionType.TRANSFER, regular, otherCustomerAccount, eur("0.01")).getKind());
+    }
+
+    @Test
+    void testAccountTypeRule_OverridesRuleForAllTypes() {
+        TransactionRuleSet rules = compile("""
+                withdraw.allowed=false
+                withdraw.regular.allowed=true
+                deposit.max-amount=1000
+                deposit.saving.max-amount=50
+                """);
+
+        assertNull(rules.firstViolation(TransactionType.WITHDRAW, regular, null, eur("10.00")));
+        assertNotNull(rules.firstViolation(TransactionType.WITHDRAW, saving, null, eur("10.00")));
+        assertNull(rules.firstViolation(TransactionType.DEPOSIT, regular, null, eur("1000.00")));
+        assertEquals("Limit exceeded: deposit cannot exceed 50.00 EUR",
+                rules.firstViolation(TransactionType.DEPOSIT, saving, null, eur("50.01")).getMessage());
+        assertEquals(3, rules.size());
+    }
+
+    @Test
+    void testAccountInOtherCurrency_OperationsWithAmountRulesRefused() throws IOException {
+        TransactionRuleSet rules = TransactionRuleSet.load(new ClassPathResource("transaction-rules.properties"));
+        Account usdRegular = account(regular.getCustomer(), AccountType.REGULAR);
+        usdRegular.setCurrency("USD");
+        Account usdSaving = account(regular.getCustomer(), AccountType.SAVING);
+        usdSaving.setCurrency("USD");
+
+        TransactionRule violated = rules.firstViolation(TransactionType.TRANSFER, usdRegular, otherCustomerAccount, usd("20000.00"));
+        assertEquals(TransactionRule.Kind.MAX_AMOUNT_OTHER_CUSTOMER, violated.getKind());
+        assertEquals(RejectionReason.NOT_PERMITTED, violated.getReason());
+        assertEquals("Not permitted: transfer limits are only set for accounts in EUR", violated.getMessage());
+        assertNotNull(rules.firstViolation(TransactionType.TRANSFER, usdRegular, ownAccount, usd("1.00")));
+        // No amount rule covers withdrawals from a regular account, so the currency does not matter.
+        assertNull(rules.firstViolation(TransactionType.WITHDRAW, usdRegular, null, usd("10.00")));
+        assertEquals("Withdrawal denied: Not permitted from savings account",
+                rules.firstViolation(TransactionType.WITHDRAW, usdSaving, null, usd("10.00")).getMessage());
+    }
+
+    @Test
+    void testThresholdPerCurrency_ComparedInTheAccountsCurrency() {
+        TransactionRuleSet rules = compile("""
+                transfer.max-amount.other-customer=15000 EUR, 16000 USD
+                transfer.max-amount.other-customer.message.USD=Transfers to another customer cannot exceed 16,000 USD
+                """);
+        Account usdRegular = account(regular.getCustomer(), AccountType.REGULAR);
+        usdRegular.setCurrency("USD");
+        Account gbpRegular = account(regular.getCustomer(), AccountType.REGULAR);
+        gbpRegular.setCurrency("GBP");
+
+        assertNull(rules.firstViolation(TransactionType.TRANSFER, usdRegular, otherCustomerAccount, usd("16000.00")));
+        TransactionRule usdLimit = rules.firstViolation(TransactionType.TRANSFER, usdRegular, otherCustomerAccount, usd("16000.01"));
+        assertEquals(RejectionReason.LIMIT_EXCEEDED, usdLimit.getReason());
+        assertEquals("Transfers to another customer cannot exceed 16,000 USD", usdLimit.getMessage());
+        assertEquals("Limit exceeded: transfer cannot exceed 15000.00 EUR",
+                rules.firstViolation(TransactionType.TRANSFER, regular, otherCustomerAccount, eur("15000.01")).getMessage());
+        assertEquals("Not permitted: transfer limits are only set for accounts in EUR, USD",
+                rules.firstViolation(TransactionType.TRANSFER, gbpRegular, otherCustomerAccount, Money.of(BigDecimal.ONE, "GBP")).getMessage());
+        assertEquals(List.of(eur("15000.00"), usd("16000.00")),
+                rules.chain(TransactionType.TRANSFER, AccountType.REGULAR).get(0).getThresholds());
+        assertEquals(2, rules.size());
+    }
+
+    @Test
+    void testInvalidRules_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> compile("payment.max-amount=10"));
+        assertThrows(IllegalArgumentException.class, () -> compile("transfer.checking.max-amount=10"));
+        assertThrows(IllegalArgumentException.class, () -> compile("transfer.max-amount=ten"));
+        assertThrows(IllegalArgumentException.class, () -> compile("transfer.max-amount=10.001"));
+        assertThrows(IllegalArgumentException.class, () -> compile("transfer.max-amount=10 euro"));
+        assertThrows(IllegalArgumentException.class, () -> compile("transfer.max-amount=10 EUR, 20 EUR"));
+        assertThrows(IllegalArgumentException.class, () -> compile("withdraw.allowed=no"));
+        assertThrows(IllegalArgumentException.class, () -> compile("withdraw.max-amount.own-accounts=10"));
+    }
+
+    private static TransactionRuleSet compile(String rules) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(rules));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return TransactionRuleSet.compile(properties);
+    }
+
+    private static Money eur(String amount) {
+        return Money.of(new BigDecimal(amount), Money.EUR);
+    }
+
+    private static Money usd(String amount) {
+        return Money.of(new BigDecimal(amount), "USD");
+    }
+
+    private static Customer customer(String id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+
+    private static Account account(Customer customer, AccountType type) {
+        Account account = new Account();
+        account.setCustomer(customer);
+        account.setAccountType(type);
+        account.setCurrency(Money.EUR);
+        return account;
+    }
+}
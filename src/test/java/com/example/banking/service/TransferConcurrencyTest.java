@@ -0,0 +1,146 @@
+package com.example.banking.service;
+
+import com.example.banking.exception.InvalidTransactionException;
+import com.example.banking.models.Account;
+import com.example.banking.models.User;
+import com.example.banking.payload.request.TransactionRequest;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.UserRepository;
+import com.example.banking.security.UserPrincipal;
+import com.example.banking.services.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a handful of hot accounts with concurrent transfers in both directions and checks
+ * that no update is lost, no transfer deadlocks, the total amount of money is unchanged and
+ * throughput stays above a floor that lock convoys or lock-wait timeouts would fall below.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@DirtiesContext
+public class TransferConcurrencyTest {
+
+    private static final int THREADS = 200;
+    private static final int TRANSFERS = 2000;
+    // Well below what the fixed lock order sustains, so only a real regression trips it on a slow machine.
+    private static final double MIN_TRANSFERS_PER_SECOND = 20;
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferConcurrencyTest.class);
+
+    private static final String BOB_REGULAR_1 = "121212121";
+    private static final String BOB_REGULAR_2 = "444444444";
+    private static final String JOHN_REGULAR = "717171717";
+
+    private static final List<String> HOT_ACCOUNTS = List.of(BOB_REGULAR_1, BOB_REGULAR_2, JOHN_REGULAR);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testConcurrentTransfers_BalancesConserved() throws Exception {
+        UserPrincipal bob = principal(userRepository.findByUsername("bob").orElseThrow());
+        UserPrincipal john = principal(userRepository.findByUsername("john").orElseThrow());
+        BigDecimal totalBefore = totalBalance();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            // Rotate through both directions between the same pair and across customers.
+            int scenario = i % 4;
+            UserPrincipal owner = scenario == 3 ? john : bob;
+            String from = switch (scenario) {
+                case 0, 2 -> BOB_REGULAR_1;
+                case 1 -> BOB_REGULAR_2;
+                default -> JOHN_REGULAR;
+            };
+            String to = switch (scenario) {
+                case 0 -> BOB_REGULAR_2;
+                case 1, 3 -> BOB_REGULAR_1;
+                default -> JOHN_REGULAR;
+            };
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities()));
+                try {
+                    customerService.transferAmount(transferRequest(from, to, new BigDecimal("3.50")));
+                    succeeded.incrementAndGet();
+                } catch (InvalidTransactionException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        double throughput = TRANSFERS / (elapsedNanos / 1_000_000_000.0);
+        logger.info("{} transfers on {} threads in {} ms ({} transfers/s, {} rejected)",
+                TRANSFERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(throughput),
+                rejected.get());
+
+        assertEquals(TRANSFERS, succeeded.get() + rejected.get());
+        assertTrue(succeeded.get() > 0);
+        assertEquals(0, totalBefore.compareTo(totalBalance()));
+        assertTrue(throughput >= MIN_TRANSFERS_PER_SECOND,
+                () -> String.format("%.0f transfers/s is below the %.0f floor", throughput, MIN_TRANSFERS_PER_SECOND));
+        for (String accountNo : HOT_ACCOUNTS) {
+            assertTrue(accountRepository.findByAccountNo(accountNo).orElseThrow().getBalance().signum() >= 0);
+        }
+    }
+
+    private BigDecimal totalBalance() {
+        return HOT_ACCOUNTS.stream()
+                .map(accountRepository::findByAccountNo)
+                .map(Optional::orElseThrow)
+                .map(Account::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static UserPrincipal principal(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    private static TransactionRequest transferRequest(String from, String to, BigDecimal amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setFromAccountNo(from);
+        request.setToAccountNo(to);
+        request.setAmount(amount);
+        return request;
+    }
+}
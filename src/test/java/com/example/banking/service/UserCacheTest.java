@@ -0,0 +1,83 @@
+package com.example.banking.service;
+
+import com.example.banking.config.CacheConfig;
+import com.example.banking.models.User;
+import com.example.banking.repository.UserRepository;
+import com.example.banking.services.UserDetailServiceImp;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserCacheTest {
+
+    @Autowired
+    private UserDetailServiceImp userDetailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+    }
+
+    @Test
+    void testLoadUserByUsername_ServedFromCacheAfterFirstLookup() {
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        UserDetails first = userDetailService.loadUserByUsername("bob");
+        UserDetails second = userDetailService.loadUserByUsername("bob");
+
+        assertEquals("bob", first.getUsername());
+        assertEquals(first.getPassword(), second.getPassword());
+        assertEquals(missesBefore + 1, cacheGets("miss"));
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void testSaveUser_PersistsAndEvictsCachedEntry() {
+        User john = userRepository.findByUsername("john").orElseThrow();
+        assertNotNull(cacheManager.getCache(CacheConfig.USERS_CACHE).get("john"));
+        String email = john.getEmail();
+
+        john.setEmail("changed@example.com");
+        userRepository.save(john);
+
+        assertNull(cacheManager.getCache(CacheConfig.USERS_CACHE).get("john"));
+        assertEquals("changed@example.com", email("john"));
+
+        john.setEmail(email);
+        userRepository.save(john);
+        assertEquals(email, email("john"));
+    }
+
+    private String email(String username) {
+        return jdbcTemplate.queryForObject("SELECT email FROM users WHERE username = ?", String.class, username);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.USERS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}